@@ -0,0 +1,107 @@
+#!/usr/bin/env bash
+#
+# Measures the startup time of the application in every build mode:
+#
+#   jvm     java -jar on the Spring Boot jar                  (./gradlew bootJar)
+#   aot     the same jar with -Dspring.aot.enabled=true         (./gradlew bootJar)
+#   cds     the extracted jar with AOT and the CDS archive      (./gradlew cdsArchive)
+#   native  the GraalVM native executable                       (./gradlew nativeCompile)
+#
+# Every mode is started RUNS times on a free port. Each start is timed until /actuator/health reports UP, which
+# includes JVM startup and the Flyway validation, and the startup time logged by Spring Boot is recorded as well.
+# Results go to build/reports/startup: one line per start in runs.csv and the medians per mode in summary.csv.
+# Modes whose artifact has not been built are skipped. The application connects to the configured database,
+# so PostgreSQL has to be running as described in the README.
+#
+# Usage: scripts/measure-startup.sh [-n RUNS] [mode...]    e.g. scripts/measure-startup.sh -n 10 jvm cds
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=5
+if [[ "${1:-}" == "-n" ]]; then
+    RUNS=$2
+    shift 2
+fi
+MODES=("$@")
+if [[ ${#MODES[@]} -eq 0 ]]; then
+    MODES=(jvm aot cds native)
+fi
+
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=120
+OUTPUT_DIR=build/reports/startup
+BOOT_JAR=$(ls build/libs/*.jar 2>/dev/null | grep -v -- '-plain.jar' | head -n 1 || true)
+CDS_DIR=build/cds
+NATIVE_IMAGE=build/native/nativeCompile/spring-framework-bible
+
+mkdir -p "$OUTPUT_DIR"
+echo "mode,run,ready_ms,started_s" > "$OUTPUT_DIR/runs.csv"
+echo "mode,runs,ready_ms_p50,started_s_p50" > "$OUTPUT_DIR/summary.csv"
+
+# Prints the command starting the given mode, or nothing if its artifact is missing
+command_for() {
+    case $1 in
+        jvm)
+            [[ -n "$BOOT_JAR" ]] && echo "java -jar $BOOT_JAR" ;;
+        aot)
+            [[ -n "$BOOT_JAR" ]] && echo "java -Dspring.aot.enabled=true -jar $BOOT_JAR" ;;
+        cds)
+            [[ -f "$CDS_DIR/application.jsa" ]] && echo "java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar $(basename "$BOOT_JAR")" ;;
+        native)
+            [[ -x "$NATIVE_IMAGE" ]] && echo "$NATIVE_IMAGE" ;;
+        *)
+            echo "Unknown mode $1" >&2
+            exit 1 ;;
+    esac
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { if (NR % 2) print values[(NR + 1) / 2]; else print (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+for mode in "${MODES[@]}"; do
+    command=$(command_for "$mode" || true)
+    if [[ -z "$command" ]]; then
+        echo "Skipping $mode: artifact not built"
+        continue
+    fi
+    workdir=.
+    [[ "$mode" == cds ]] && workdir=$CDS_DIR
+
+    for run in $(seq 1 "$RUNS"); do
+        log="$OUTPUT_DIR/$mode-$run.log"
+        start=$(date +%s%N)
+        (cd "$workdir" && exec $command --server.port="$PORT") > "$log" 2>&1 &
+        pid=$!
+
+        ready_ms=
+        while kill -0 "$pid" 2>/dev/null; do
+            if curl -fs "http://localhost:$PORT/actuator/health" | grep -q '"status":"UP"'; then
+                ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+                break
+            fi
+            if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+                break
+            fi
+            sleep 0.02
+        done
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+
+        if [[ -z "$ready_ms" ]]; then
+            echo "$mode run $run did not become healthy, see $log" >&2
+            exit 1
+        fi
+        started_s=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+' | head -n 1 || true)
+        echo "$mode,$run,$ready_ms,$started_s" >> "$OUTPUT_DIR/runs.csv"
+        echo "$mode run $run: ready after $ready_ms ms, Spring Boot started in $started_s s"
+    done
+
+    ready_p50=$(grep "^$mode," "$OUTPUT_DIR/runs.csv" | cut -d, -f3 | median)
+    started_p50=$(grep "^$mode," "$OUTPUT_DIR/runs.csv" | cut -d, -f4 | median)
+    echo "$mode,$RUNS,$ready_p50,$started_p50" >> "$OUTPUT_DIR/summary.csv"
+done
+
+cat "$OUTPUT_DIR/summary.csv"
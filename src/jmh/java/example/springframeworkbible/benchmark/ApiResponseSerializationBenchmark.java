@@ -0,0 +1,58 @@
+package example.springframeworkbible.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import example.springframeworkbible.dto.ApiResponse;
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON encoding of the ApiResponse envelope around product lists,
+ * using an ObjectMapper configured the same way as the one of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<ProductDto>> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        ProductMapper productMapper = new ProductMapper();
+        CategoryMapper categoryMapper = new CategoryMapper();
+        List<CategoryDto> categories = BenchmarkData.categories(BenchmarkData.CATEGORIES_PER_PRODUCT).stream()
+                .map(categoryMapper::toDto)
+                .toList();
+        List<ProductDto> products = BenchmarkData.products(size).stream()
+                .map(productMapper::toDto)
+                .peek(product -> product.setCategories(categories))
+                .toList();
+        response = ApiResponse.success(products, "Products retrieved successfully");
+    }
+
+    @Benchmark
+    public byte[] encodeProductList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
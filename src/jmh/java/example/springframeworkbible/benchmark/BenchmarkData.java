@@ -0,0 +1,73 @@
+package example.springframeworkbible.benchmark;
+
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.domain.Product;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic fixtures shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final int CATEGORIES_PER_PRODUCT = 3;
+
+    private BenchmarkData() {
+    }
+
+    static Product product(long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .description("Description of product " + id + " with some searchable text")
+                .price(BigDecimal.valueOf(id % 1000, 2).add(BigDecimal.ONE))
+                .sku("SKU-" + id)
+                .createdAt(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                .updatedAt(OffsetDateTime.of(2024, 1, 2, 0, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+    static Category category(long id) {
+        return Category.builder()
+                .id(id)
+                .name("Category " + id)
+                .description("Description of category " + id)
+                .createdAt(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                .updatedAt(OffsetDateTime.of(2024, 1, 2, 0, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            categories.add(category(id));
+        }
+        return categories;
+    }
+
+    /**
+     * Builds product_categories rows linking every product to a few categories.
+     */
+    static List<Map.Entry<Long, Long>> productCategoryRows(List<Product> products, int categoryCount) {
+        List<Map.Entry<Long, Long>> rows = new ArrayList<>(products.size() * CATEGORIES_PER_PRODUCT);
+        for (Product product : products) {
+            for (int i = 0; i < CATEGORIES_PER_PRODUCT; i++) {
+                rows.add(Map.entry(product.getId(), (product.getId() + i) % categoryCount + 1));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,62 @@
+package example.springframeworkbible.benchmark;
+
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.domain.Product;
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity/DTO mappers used on every read and write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+
+    private Product product;
+    private ProductDto productDto;
+    private Category category;
+    private CategoryDto categoryDto;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(42);
+        productDto = productMapper.toDto(product);
+        category = BenchmarkData.category(7);
+        categoryDto = categoryMapper.toDto(category);
+    }
+
+    @Benchmark
+    public ProductDto productToDto() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product productToEntity() {
+        return productMapper.toEntity(productDto);
+    }
+
+    @Benchmark
+    public CategoryDto categoryToDto() {
+        return categoryMapper.toDto(category);
+    }
+
+    @Benchmark
+    public Category categoryToEntity() {
+        return categoryMapper.toEntity(categoryDto);
+    }
+}
@@ -0,0 +1,145 @@
+package example.springframeworkbible.benchmark;
+
+import example.springframeworkbible.cache.CategoryDictionary;
+import example.springframeworkbible.cache.CategoryFacetCounter;
+import example.springframeworkbible.cache.ProductCache;
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.domain.Product;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.mapper.ProductMapper;
+import example.springframeworkbible.repository.CategoryRepository;
+import example.springframeworkbible.repository.ProductRepository;
+import example.springframeworkbible.search.ProductSearchIndex;
+import example.springframeworkbible.service.impl.ProductServiceImpl;
+import example.springframeworkbible.service.impl.ProductServiceSupport;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the Reactor pipelines of ProductServiceImpl on top of stubbed repositories.
+ * The stubs answer synchronously from memory, so the numbers cover the service
+ * chains (mapping, windowing, category resolution, cache and index lookups)
+ * and not the database round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+
+    private static final int CATEGORY_COUNT = 50;
+
+    @Param({"100", "1000"})
+    private int productCount;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ValidatorFactory validatorFactory;
+    private ProductServiceImpl productService;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(productCount);
+        List<Category> categories = BenchmarkData.categories(CATEGORY_COUNT);
+        Map<Long, List<Long>> categoryIdsByProduct = BenchmarkData.productCategoryRows(products, CATEGORY_COUNT).stream()
+                .collect(Collectors.groupingBy(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+        // The category IDs are part of the product row
+        products.forEach(product -> product.setCategoryIds(
+                categoryIdsByProduct.getOrDefault(product.getId(), List.of())));
+        Map<Long, Product> productsById = products.stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll()).thenAnswer(invocation -> Flux.fromIterable(products));
+        when(productRepository.findById(anyLong())).thenAnswer(invocation ->
+                Mono.justOrEmpty(productsById.get(invocation.<Long>getArgument(0))));
+        when(productRepository.findAllById(any(Iterable.class))).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).mapNotNull(productsById::get);
+        });
+
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenAnswer(invocation -> Flux.fromIterable(categories));
+
+        CategoryDictionary categoryDictionary = new CategoryDictionary(categoryRepository, new CategoryMapper(), null);
+        categoryDictionary.refresh().block();
+
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(productRepository, "index");
+        productSearchIndex.build();
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        CategoryFacetCounter categoryFacetCounter =
+                new CategoryFacetCounter(mock(DatabaseClient.class), Duration.ofMinutes(5));
+        ProductServiceSupport support = new ProductServiceSupport(
+                new ProductMapper(),
+                categoryDictionary,
+                categoryFacetCounter,
+                validatorFactory.getValidator());
+        ReflectionTestUtils.setField(support, "enrichmentBatchSize", 500);
+        productService = new ProductServiceImpl(
+                productRepository,
+                categoryRepository,
+                new ProductMapper(),
+                mock(DatabaseClient.class),
+                mock(R2dbcConverter.class),
+                new ProductCache(cacheEnabled, 10_000, Duration.ofMinutes(5)),
+                categoryFacetCounter,
+                productSearchIndex,
+                support,
+                event -> {
+                });
+        ReflectionTestUtils.setField(productService, "enrichmentBatchSize", 500);
+        ReflectionTestUtils.setField(productService, "bulkBatchSize", 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> findAll() {
+        return productService.findAll().collectList().block();
+    }
+
+    @Benchmark
+    public ProductDto findById() {
+        nextId = nextId % productCount + 1;
+        return productService.findById(nextId).block();
+    }
+
+    @Benchmark
+    public List<ProductDto> searchByName() {
+        return productService.searchByName("product 12").collectList().block();
+    }
+}
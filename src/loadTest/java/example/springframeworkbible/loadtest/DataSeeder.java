@@ -0,0 +1,75 @@
+package example.springframeworkbible.loadtest;
+
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the schema with the application migrations and seeds it with generated data.
+ * Everything is generated server-side with generate_series, so seeding a large
+ * scale costs a few statements instead of one round trip per row.
+ */
+final class DataSeeder {
+
+    private static final String INSERT_CATEGORIES_SQL =
+            "INSERT INTO categories (name, description) " +
+            "SELECT 'Category ' || g, 'Seeded category ' || g FROM generate_series(1, ?) AS g";
+
+    private static final String INSERT_PRODUCTS_SQL =
+            "INSERT INTO products (name, description, price, sku) " +
+            "SELECT 'Product ' || g || ' ' || substr(md5(g::text), 1, 8), " +
+            "'Seeded product ' || g || ' ' || md5(g::text), " +
+            "(g % 1000) + 0.99, 'SKU-' || g " +
+            "FROM generate_series(1, ?) AS g";
+
+    private static final String INSERT_PRODUCT_CATEGORIES_SQL =
+            "INSERT INTO product_categories (product_id, category_id) " +
+            "SELECT p.id, c.id FROM products p " +
+            "CROSS JOIN generate_series(0, ? - 1) AS k " +
+            "JOIN categories c ON c.id = ((p.id + k) % ?) + 1 " +
+            "ON CONFLICT DO NOTHING";
+
+    private DataSeeder() {
+    }
+
+    /**
+     * Runs the migrations and seeds the database.
+     *
+     * @param dataSource The data source of the database
+     * @param settings The scale of the seeded data
+     */
+    static void migrateAndSeed(DataSource dataSource, LoadTestSettings settings) throws SQLException {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET search_path TO spring_bible,public");
+            }
+            executeUpdate(connection, INSERT_CATEGORIES_SQL, settings.categories());
+            executeUpdate(connection, INSERT_PRODUCTS_SQL, settings.products());
+            executeUpdate(connection, INSERT_PRODUCT_CATEGORIES_SQL,
+                    settings.categoriesPerProduct(), settings.categories());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    private static void executeUpdate(Connection connection, String sql, int... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setInt(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package example.springframeworkbible.loadtest;
+
+import example.springframeworkbible.SpringFrameworkBibleApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline end-to-end load test.
+ * Starts an embedded PostgreSQL binary, migrates and seeds it, boots the
+ * application on a random port and runs every scenario with an open-loop
+ * arrival rate. An HdrHistogram percentile distribution is written per
+ * scenario, together with a summary of throughput and latency percentiles.
+ *
+ * <p>Run with {@code ./gradlew loadTest}, see {@link LoadTestSettings} for the
+ * {@code -Ploadtest.*} options. {@code -Papp.*} properties are passed to the application.
+ */
+public final class LoadTestRunner {
+
+    private static final String DATABASE = "spring_bible";
+    private static final String USER = "postgres";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Files.createDirectories(settings.outputDir());
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE " + DATABASE);
+            }
+            DataSeeder.migrateAndSeed(postgres.getDatabase(USER, DATABASE), settings);
+
+            try (ConfigurableApplicationContext context = startApplication(postgres.getPort(), settings.profile())) {
+                int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+                runScenarios(settings, port);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(int databasePort, String profile) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringFrameworkBibleApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties(
+                        "server.port=0",
+                        "spring.r2dbc.url=r2dbc:postgresql://localhost:" + databasePort + "/" + DATABASE,
+                        "spring.r2dbc.username=" + USER,
+                        "spring.r2dbc.password=" + USER,
+                        "spring.flyway.url=jdbc:postgresql://localhost:" + databasePort + "/" + DATABASE,
+                        "spring.flyway.user=" + USER,
+                        "spring.flyway.password=" + USER,
+                        "spring.datasource.url=jdbc:postgresql://localhost:" + databasePort + "/" + DATABASE,
+                        "spring.datasource.username=" + USER,
+                        "spring.datasource.password=" + USER,
+                        "logging.level.org.springframework.data.r2dbc=INFO");
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+        return builder.run();
+    }
+
+    private static void runScenarios(LoadTestSettings settings, int port) throws IOException {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(settings.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        OpenLoopDriver driver = new OpenLoopDriver(webClient, settings.maxInFlight());
+
+        List<String> summary = new ArrayList<>();
+        summary.add("scenario,requests,errors,throughput_rps,p50_ms,p95_ms,p99_ms,p999_ms,max_ms");
+        try {
+            for (Scenario scenario : new Scenarios(settings).all()) {
+                if (!settings.scenarios().matcher(scenario.name()).matches()) {
+                    continue;
+                }
+                System.out.printf("Running %s at %d req/s%n", scenario.name(), settings.rate());
+                if (settings.warmupSeconds() > 0) {
+                    driver.run(scenario, settings.rate(), settings.warmupSeconds());
+                }
+                OpenLoopDriver.Result result = driver.run(scenario, settings.rate(), settings.durationSeconds());
+                writeHistogram(settings.outputDir().resolve(scenario.name() + ".hgrm"), result);
+                summary.add(summaryLine(scenario.name(), result));
+            }
+        } finally {
+            connectionProvider.dispose();
+        }
+
+        Path summaryFile = settings.outputDir().resolve("summary.csv");
+        Files.write(summaryFile, summary);
+        summary.forEach(System.out::println);
+        System.out.println("Reports written to " + settings.outputDir().toAbsolutePath());
+    }
+
+    private static void writeHistogram(Path file, OpenLoopDriver.Result result) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Latencies are recorded in microseconds and reported in milliseconds
+            result.histogram().outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String summaryLine(String name, OpenLoopDriver.Result result) {
+        return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                name,
+                result.requests(),
+                result.errors(),
+                result.throughput(),
+                result.histogram().getValueAtPercentile(50) / 1000.0,
+                result.histogram().getValueAtPercentile(95) / 1000.0,
+                result.histogram().getValueAtPercentile(99) / 1000.0,
+                result.histogram().getValueAtPercentile(99.9) / 1000.0,
+                result.histogram().getMaxValue() / 1000.0);
+    }
+}
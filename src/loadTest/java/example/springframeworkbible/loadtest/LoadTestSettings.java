@@ -0,0 +1,45 @@
+package example.springframeworkbible.loadtest;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Settings of a load-test run, read from {@code loadtest.*} system properties.
+ *
+ * @param products Number of seeded products
+ * @param categories Number of seeded categories
+ * @param categoriesPerProduct Number of categories linked to each seeded product
+ * @param rate Intended arrival rate of each scenario, in requests per second
+ * @param warmupSeconds Duration of the unrecorded warmup of each scenario
+ * @param durationSeconds Duration of the recorded run of each scenario
+ * @param maxInFlight Maximum number of concurrent requests before arrivals queue up
+ * @param scenarios Pattern selecting the scenarios to run by name
+ * @param outputDir Directory receiving the reports
+ * @param profile Spring profile the application is started with, or null for the default R2DBC stack
+ */
+record LoadTestSettings(
+        int products,
+        int categories,
+        int categoriesPerProduct,
+        int rate,
+        int warmupSeconds,
+        int durationSeconds,
+        int maxInFlight,
+        Pattern scenarios,
+        Path outputDir,
+        String profile) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.products", 10_000),
+                Integer.getInteger("loadtest.categories", 200),
+                Integer.getInteger("loadtest.categories-per-product", 3),
+                Integer.getInteger("loadtest.rate", 200),
+                Integer.getInteger("loadtest.warmup-seconds", 10),
+                Integer.getInteger("loadtest.duration-seconds", 30),
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                Pattern.compile(System.getProperty("loadtest.scenarios", ".*")),
+                Path.of(System.getProperty("loadtest.output-dir", "build/reports/loadtest")),
+                System.getProperty("loadtest.profile"));
+    }
+}
@@ -0,0 +1,82 @@
+package example.springframeworkbible.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a scenario with an open-loop arrival rate.
+ * Requests are started on a fixed schedule whatever the response times are, and
+ * each latency is measured from the intended start time of its request. A slow
+ * server therefore shows up as queueing delay in the percentiles instead of
+ * silently lowering the offered load (coordinated omission).
+ */
+final class OpenLoopDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final WebClient webClient;
+    private final int maxInFlight;
+
+    OpenLoopDriver(WebClient webClient, int maxInFlight) {
+        this.webClient = webClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Result of a scenario run.
+     *
+     * @param histogram Latencies of the completed requests, in microseconds
+     * @param requests Number of completed requests
+     * @param errors Number of requests that failed or did not return a 2xx status
+     * @param elapsedNanos Wall-clock duration of the run
+     */
+    record Result(Histogram histogram, long requests, long errors, long elapsedNanos) {
+
+        double throughput() {
+            return requests * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Runs a scenario at the given rate for the given duration.
+     *
+     * @param scenario The scenario to run
+     * @param rate The arrival rate, in requests per second
+     * @param seconds The duration of the run
+     * @return The result of the run
+     */
+    Result run(Scenario scenario, int rate, int seconds) {
+        long periodNanos = 1_000_000_000L / rate;
+        long total = (long) rate * seconds;
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime() + periodNanos;
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(total)
+                .onBackpressureBuffer()
+                .flatMap(tick -> {
+                    long intendedStart = start + tick * periodNanos;
+                    return Mono.defer(() -> scenario.request().apply(webClient))
+                            .onErrorResume(ex -> Mono.just(HttpStatus.SERVICE_UNAVAILABLE))
+                            .doOnNext(status -> {
+                                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                                histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                                if (!status.is2xxSuccessful()) {
+                                    errors.incrementAndGet();
+                                }
+                            });
+                }, maxInFlight)
+                .blockLast();
+
+        return new Result(histogram, histogram.getTotalCount(), errors.get(), System.nanoTime() - start + periodNanos);
+    }
+}
@@ -0,0 +1,31 @@
+package example.springframeworkbible.loadtest;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * One endpoint exercised by the load test.
+ *
+ * @param name The name of the scenario, used for its report file
+ * @param request Sends one request and emits the response status once the body is fully read
+ */
+record Scenario(String name, Function<WebClient, Mono<HttpStatusCode>> request) {
+
+    /**
+     * Reads and discards the whole response body, so the recorded latency includes the transfer.
+     *
+     * @param response The response to consume
+     * @return A Mono emitting the status of the response
+     */
+    static Mono<HttpStatusCode> consume(ClientResponse response) {
+        return response.bodyToFlux(DataBuffer.class)
+                .doOnNext(DataBufferUtils::release)
+                .then(Mono.just(response.statusCode()));
+    }
+}
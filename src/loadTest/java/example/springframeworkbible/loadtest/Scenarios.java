@@ -0,0 +1,202 @@
+package example.springframeworkbible.loadtest;
+
+import example.springframeworkbible.util.CursorUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * The scenarios covering every endpoint of /api/products and /api/categories.
+ * Read scenarios pick random seeded rows. Create scenarios use unique names and
+ * SKUs, and the delete scenarios remove rows created by the create scenarios
+ * that ran before them. The product update rewrites a seeded row with its seeded
+ * name, description and SKU and only changes the price, so lookups by SKU and the
+ * searches keep finding the seeded products. Category link changes do alter the
+ * seeded links.
+ */
+final class Scenarios {
+
+    private static final String[] SEARCH_TERMS = {"product 1", "product 42", "a1", "7f", "product 99"};
+
+    private final LoadTestSettings settings;
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final Queue<Long> createdProductIds = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> createdCategoryIds = new ConcurrentLinkedQueue<>();
+
+    Scenarios(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Builds all scenarios, in the order they are run.
+     *
+     * @return The scenarios
+     */
+    List<Scenario> all() {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        scenarios.add(new Scenario("products-list", client -> client.get()
+                .uri("/api/products")
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-stream", client -> client.get()
+                .uri("/api/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-page", client -> client.get()
+                .uri("/api/products?limit=50&after={after}", CursorUtils.encode(randomProductId()))
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-by-id", client -> client.get()
+                .uri("/api/products/{id}", randomProductId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-by-sku", client -> client.get()
+                .uri("/api/products/sku/{sku}", "SKU-" + randomProductId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-search", client -> client.get()
+                .uri("/api/products/search?name={name}", randomSearchTerm())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-search-ranked", client -> client.get()
+                .uri("/api/products/search/ranked?q={q}&limit=20", randomSearchTerm())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-create", client -> client.post()
+                .uri("/api/products")
+                .bodyValue(newProduct())
+                .exchangeToMono(response -> response.bodyToMono(Map.class)
+                        .doOnNext(body -> rememberId(body, createdProductIds))
+                        .then(Mono.just(response.statusCode())))));
+        scenarios.add(new Scenario("products-update", client -> {
+            long id = randomProductId();
+            return client.put()
+                    .uri("/api/products/{id}", id)
+                    .bodyValue(seededProduct(id))
+                    .exchangeToMono(Scenario::consume);
+        }));
+        scenarios.add(new Scenario("products-bulk", client -> client.post()
+                .uri("/api/products/bulk")
+                .bodyValue(IntStream.range(0, 100).mapToObj(i -> newProduct()).toList())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-add-category", client -> client.post()
+                .uri("/api/products/{productId}/categories/{categoryId}", randomProductId(), randomCategoryId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-remove-category", client -> client.delete()
+                .uri("/api/products/{productId}/categories/{categoryId}", randomProductId(), randomCategoryId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-replace-categories", client -> client.put()
+                .uri("/api/products/{productId}/categories", randomProductId())
+                .bodyValue(List.of(randomCategoryId(), randomCategoryId()))
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("products-delete", client -> deleteCreated(client, "/api/products/{id}", createdProductIds)));
+
+        scenarios.add(new Scenario("categories-list", client -> client.get()
+                .uri("/api/categories")
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-page", client -> client.get()
+                .uri("/api/categories?limit=50&after={after}", CursorUtils.encode(randomCategoryId()))
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-by-id", client -> client.get()
+                .uri("/api/categories/{id}", randomCategoryId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-by-name", client -> client.get()
+                .uri("/api/categories/name/{name}", "Category " + randomCategoryId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-search", client -> client.get()
+                .uri("/api/categories/search?name={name}", "gory 1")
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-by-product", client -> client.get()
+                .uri("/api/categories/product/{productId}", randomProductId())
+                .exchangeToMono(Scenario::consume)));
+        scenarios.add(new Scenario("categories-create", client -> client.post()
+                .uri("/api/categories")
+                .bodyValue(Map.of("name", "Load category " + sequence.incrementAndGet()))
+                .exchangeToMono(response -> response.bodyToMono(Map.class)
+                        .doOnNext(body -> rememberId(body, createdCategoryIds))
+                        .then(Mono.just(response.statusCode())))));
+        scenarios.add(new Scenario("categories-update", client -> {
+            Long id = createdCategoryIds.peek();
+            return client.put()
+                    .uri("/api/categories/{id}", id == null ? randomCategoryId() : id)
+                    .bodyValue(Map.of("name", "Load category " + sequence.incrementAndGet()))
+                    .exchangeToMono(Scenario::consume);
+        }));
+        scenarios.add(new Scenario("categories-delete", client -> deleteCreated(client, "/api/categories/{id}", createdCategoryIds)));
+
+        return scenarios;
+    }
+
+    private Mono<HttpStatusCode> deleteCreated(WebClient client, String uri, Queue<Long> createdIds) {
+        Long id = createdIds.poll();
+        if (id == null) {
+            // Nothing left to delete, report it as a failed request instead of deleting seeded rows
+            return Mono.just(HttpStatus.PRECONDITION_FAILED);
+        }
+        return client.delete()
+                .uri(uri, id)
+                .exchangeToMono(Scenario::consume);
+    }
+
+    private Map<String, Object> newProduct() {
+        long n = sequence.incrementAndGet();
+        return Map.of(
+                "name", "Load product " + n,
+                "description", "Created by the load test",
+                "price", ThreadLocalRandom.current().nextInt(1, 1000) + 0.5,
+                "sku", "LOAD-" + n);
+    }
+
+    /**
+     * Builds the seeded values of a product, as written by {@link DataSeeder}, with a new price.
+     *
+     * @param id The ID of the seeded product
+     * @return The product to send
+     */
+    private static Map<String, Object> seededProduct(long id) {
+        String md5 = md5Hex(Long.toString(id));
+        return Map.of(
+                "name", "Product " + id + " " + md5.substring(0, 8),
+                "description", "Seeded product " + id + " " + md5,
+                "price", ThreadLocalRandom.current().nextInt(1, 1000) + 0.99,
+                "sku", "SKU-" + id);
+    }
+
+    private static String md5Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void rememberId(Map<?, ?> body, Queue<Long> createdIds) {
+        Object data = body.get("data");
+        if (data instanceof Map<?, ?> dto && dto.get("id") instanceof Number id) {
+            createdIds.add(id.longValue());
+        }
+    }
+
+    private long randomProductId() {
+        return ThreadLocalRandom.current().nextLong(1, settings.products() + 1);
+    }
+
+    private long randomCategoryId() {
+        return ThreadLocalRandom.current().nextLong(1, settings.categories() + 1);
+    }
+
+    private static String randomSearchTerm() {
+        return SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)];
+    }
+}
@@ -0,0 +1,232 @@
+package example.springframeworkbible.cache;
+
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.repository.CategoryRepository;
+import example.springframeworkbible.routing.ReplicaRoutingConnectionFactory;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory dictionary of all categories, indexed by ID and by name.
+ * <p>
+ * The categories table is small and rarely changes, so the whole table is held as an
+ * immutable snapshot that is swapped atomically. A trigger on the table publishes a
+ * notification on the categories_changed channel, which is consumed over a dedicated
+ * connection and reloads the snapshot. Lookups are therefore plain map reads.
+ * <p>
+ * With read replica routing, the snapshot is always loaded from the primary, even when a read-only
+ * request triggers the load: a snapshot read from a lagging replica could replace a newer one loaded
+ * after a notification, and no later notification would correct it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryDictionary {
+
+    private static final String CHANNEL = "categories_changed";
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final R2dbcProperties r2dbcProperties;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    private volatile Disposable listener;
+
+    /**
+     * Gets the current snapshot, loading it first if it has not been loaded yet.
+     *
+     * @return A Mono containing the current snapshot
+     */
+    public Mono<Snapshot> snapshot() {
+        return Mono.defer(() -> {
+            Snapshot snapshot = current.get();
+            return snapshot != null ? Mono.just(snapshot) : refresh();
+        });
+    }
+
+    /**
+     * Gets a snapshot containing all the given category IDs.
+     * The snapshot is reloaded once if an ID is missing, which happens when a
+     * category was created but its notification has not been processed yet.
+     *
+     * @param ids The category IDs that must be resolvable
+     * @return A Mono containing the snapshot
+     */
+    public Mono<Snapshot> snapshotContaining(Collection<Long> ids) {
+        return snapshot()
+                .flatMap(snapshot -> snapshot.containsAll(ids) ? Mono.just(snapshot) : refresh());
+    }
+
+    /**
+     * Reloads all categories from the primary database and replaces the current snapshot.
+     *
+     * @return A Mono containing the new snapshot
+     */
+    public Mono<Snapshot> refresh() {
+        return categoryRepository.findAll()
+                .map(categoryMapper::toDto)
+                .collectList()
+                .map(Snapshot::new)
+                .doOnNext(snapshot -> {
+                    current.set(snapshot);
+                    log.debug("Loaded {} categories into the category dictionary", snapshot.getAll().size());
+                })
+                .contextWrite(ReplicaRoutingConnectionFactory.primary());
+    }
+
+    /**
+     * Find all categories, ordered by ID.
+     *
+     * @return A Flux of all categories
+     */
+    public Flux<CategoryDto> findAll() {
+        return snapshot().flatMapIterable(Snapshot::getAll);
+    }
+
+    /**
+     * Find a category by its ID.
+     *
+     * @param id The ID of the category
+     * @return A Mono containing the category if it is in the snapshot
+     */
+    public Mono<CategoryDto> findById(Long id) {
+        return snapshot().mapNotNull(snapshot -> snapshot.findById(id));
+    }
+
+    /**
+     * Find a category by its name.
+     *
+     * @param name The name of the category
+     * @return A Mono containing the category if it is in the snapshot
+     */
+    public Mono<CategoryDto> findByName(String name) {
+        return snapshot().mapNotNull(snapshot -> snapshot.findByName(name));
+    }
+
+    /**
+     * Resolves category IDs into categories, keeping the order of the IDs.
+     *
+     * @param ids The category IDs to resolve
+     * @return A Mono containing the categories that exist
+     */
+    public Mono<List<CategoryDto>> resolve(Collection<Long> ids) {
+        return snapshotContaining(ids).map(snapshot -> snapshot.resolve(ids));
+    }
+
+    /**
+     * Starts listening for category changes once the application is ready.
+     * The listener reconnects with a backoff and reloads the snapshot after every
+     * (re)connection, so changes made while it was disconnected are not lost. The backoff
+     * starts over once a connection has delivered a notification again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        listener = listen()
+                .onBackpressureLatest()
+                .concatMap(notification -> refresh(), 1)
+                .doOnError(ex -> log.warn("Category change listener failed, reconnecting", ex))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true))
+                .subscribe();
+    }
+
+    /**
+     * Stops listening for category changes.
+     */
+    @PreDestroy
+    public void stopListening() {
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+
+    private Flux<Notification> listen() {
+        return Flux.usingWhen(
+                Mono.from(R2dbcConnectionUtils.createUnpooled(r2dbcProperties).create())
+                        .cast(PostgresqlConnection.class),
+                connection -> connection.createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .thenMany(refresh())
+                        .thenMany(connection.getNotifications())
+                        // The stream completes when the server or a pooler closes the session, which
+                        // has to reconnect just like a failure
+                        .concatWith(Mono.error(() -> new IllegalStateException(
+                                "Notification connection closed by the server"))),
+                Connection::close);
+    }
+
+    /**
+     * Immutable view of all categories at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final List<CategoryDto> all;
+        private final Map<Long, CategoryDto> byId;
+        private final Map<String, CategoryDto> byName;
+
+        private Snapshot(List<CategoryDto> categories) {
+            this.all = categories.stream()
+                    .sorted(Comparator.comparing(CategoryDto::getId))
+                    .toList();
+            this.byId = categories.stream()
+                    .collect(Collectors.toUnmodifiableMap(CategoryDto::getId, Function.identity()));
+            this.byName = categories.stream()
+                    .collect(Collectors.toUnmodifiableMap(CategoryDto::getName, Function.identity()));
+        }
+
+        public List<CategoryDto> getAll() {
+            return all;
+        }
+
+        public CategoryDto findById(Long id) {
+            return byId.get(id);
+        }
+
+        public CategoryDto findByName(String name) {
+            return byName.get(name);
+        }
+
+        public boolean containsAll(Collection<Long> ids) {
+            return byId.keySet().containsAll(ids);
+        }
+
+        public List<CategoryDto> resolve(Collection<Long> ids) {
+            List<CategoryDto> categories = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                CategoryDto category = byId.get(id);
+                if (category != null) {
+                    categories.add(category);
+                }
+            }
+            return categories;
+        }
+    }
+}
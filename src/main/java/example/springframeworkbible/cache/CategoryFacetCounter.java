@@ -0,0 +1,144 @@
+package example.springframeworkbible.cache;
+
+import example.springframeworkbible.routing.ReplicaRoutingConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory number of products per category, for the category facets.
+ * <p>
+ * The product and category services adjust the counters on every change of a category link,
+ * so reads are plain map copies. The counters are reconciled against the product_categories
+ * table periodically, which corrects changes made by other application instances or directly
+ * in the database, as well as a change racing with a reconciliation.
+ * <p>
+ * With read replica routing, the counts are always read from the primary, including the first load
+ * triggered by a read-only request: counts read from a lagging replica would be served until the
+ * next reconciliation.
+ */
+@Slf4j
+@Component
+public class CategoryFacetCounter {
+
+    private static final String COUNT_SQL =
+            "SELECT category_id, COUNT(*) AS products FROM product_categories GROUP BY category_id";
+
+    private final DatabaseClient databaseClient;
+    private final Duration reconcileInterval;
+    private final Map<Long, Long> counts = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+    private volatile Disposable reconciler;
+
+    public CategoryFacetCounter(
+            DatabaseClient databaseClient,
+            @Value("${app.facets.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.databaseClient = databaseClient;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Gets the number of products of every category that has any, loading the counters first
+     * if they have not been loaded yet.
+     *
+     * @return A Mono containing a copy of the counters, keyed by category ID
+     */
+    public Mono<Map<Long, Long>> counts() {
+        return Mono.defer(() -> loaded ? Mono.<Void>empty() : reconcile())
+                .then(Mono.fromSupplier(() -> Map.copyOf(counts)));
+    }
+
+    /**
+     * Adjusts the number of products of a category.
+     *
+     * @param categoryId The ID of the category
+     * @param delta The number of products added to (positive) or removed from (negative) the category
+     */
+    public void add(Long categoryId, long delta) {
+        // Until the first reconciliation there is nothing to adjust; it loads the current counts
+        if (loaded && delta != 0) {
+            counts.compute(categoryId, (id, current) -> {
+                long next = (current == null ? 0 : current) + delta;
+                return next > 0 ? next : null;
+            });
+        }
+    }
+
+    /**
+     * Removes one product from each of the given categories.
+     *
+     * @param categoryIds The IDs of the categories the product was in
+     */
+    public void removeProduct(Collection<Long> categoryIds) {
+        categoryIds.forEach(categoryId -> add(categoryId, -1));
+    }
+
+    /**
+     * Drops the counter of a deleted category.
+     *
+     * @param categoryId The ID of the category
+     */
+    public void removeCategory(Long categoryId) {
+        counts.remove(categoryId);
+    }
+
+    /**
+     * Replaces all counters with the counts of the product_categories table on the primary database.
+     *
+     * @return A Mono completing when the counters are replaced
+     */
+    public Mono<Void> reconcile() {
+        return databaseClient.sql(COUNT_SQL)
+                .map((row, metadata) -> Map.entry(
+                        row.get("category_id", Long.class),
+                        row.get("products", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .doOnNext(actual -> {
+                    counts.keySet().retainAll(actual.keySet());
+                    counts.putAll(actual);
+                    loaded = true;
+                    log.debug("Reconciled product counts of {} categories", actual.size());
+                })
+                .then()
+                .contextWrite(ReplicaRoutingConnectionFactory.primary());
+    }
+
+    /**
+     * Starts the periodic reconciliation once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReconciling() {
+        reconciler = Flux.interval(Duration.ZERO, reconcileInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(ex -> {
+                            log.warn("Failed to reconcile category facet counts", ex);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    /**
+     * Stops the periodic reconciliation.
+     */
+    @PreDestroy
+    public void stopReconciling() {
+        if (reconciler != null) {
+            reconciler.dispose();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package example.springframeworkbible.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.routing.ReplicaRoutingConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process read-through cache of fully enriched products, keyed by ID and SKU.
+ * The cache is size and TTL bounded and disabled unless app.cache.product.enabled is set.
+ * <p>
+ * Entries are invalidated by the product service once a write has committed. Products embed their
+ * categories, so a committed category change drops every entry. A product loaded
+ * while an invalidation happens is returned but not cached, so a read that started before the
+ * commit cannot put the old product back. Cached products are shared and must not be modified.
+ * <p>
+ * With read replica routing, the loads of the enabled cache always run on the primary: a product read
+ * from a lagging replica right after an invalidation would otherwise be served for the whole TTL.
+ */
+@Component
+public class ProductCache {
+
+    private final boolean enabled;
+    private final Cache<Long, ProductDto> productsById;
+    private final Cache<String, Long> productIdsBySku;
+    // Incremented on every invalidation, products loaded across an invalidation are not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCache(
+            @Value("${app.cache.product.enabled:false}") boolean enabled,
+            @Value("${app.cache.product.maximum-size:10000}") long maximumSize,
+            @Value("${app.cache.product.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.productIdsBySku = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets a product by ID from the cache, loading and caching it on a miss.
+     *
+     * @param id The ID of the product
+     * @param loader Supplier of the product when it is not cached
+     * @return A Mono containing the product
+     */
+    public Mono<ProductDto> getById(Long id, Supplier<Mono<ProductDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            ProductDto cached = productsById.getIfPresent(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long loadedGeneration = generation.get();
+            return loader.get()
+                    .doOnNext(product -> put(product, loadedGeneration))
+                    .contextWrite(ReplicaRoutingConnectionFactory.primary());
+        });
+    }
+
+    /**
+     * Gets a product by SKU from the cache, loading and caching it on a miss.
+     * The SKU only maps to an ID, so a product whose SKU changed is never served for the old SKU.
+     *
+     * @param sku The SKU of the product
+     * @param loader Supplier of the product when it is not cached
+     * @return A Mono containing the product
+     */
+    public Mono<ProductDto> getBySku(String sku, Supplier<Mono<ProductDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            Long id = productIdsBySku.getIfPresent(sku);
+            ProductDto cached = id != null ? productsById.getIfPresent(id) : null;
+            if (cached != null && sku.equals(cached.getSku())) {
+                return Mono.just(cached);
+            }
+            long loadedGeneration = generation.get();
+            return loader.get()
+                    .doOnNext(product -> put(product, loadedGeneration))
+                    .contextWrite(ReplicaRoutingConnectionFactory.primary());
+        });
+    }
+
+    /**
+     * Removes a product from the cache.
+     *
+     * @param id The ID of the product to remove
+     */
+    public void invalidate(Long id) {
+        if (enabled) {
+            generation.incrementAndGet();
+            productsById.invalidate(id);
+        }
+    }
+
+    /**
+     * Drops every cached product when a category changed, since the products embed their categories
+     * and the ETags are derived from the cached representation.
+     *
+     * @param event The change published by a service
+     */
+    @EventListener
+    public void onResourceChanged(ResourceChangedEvent event) {
+        if (enabled && event.resource() == ResourceChangedEvent.Resource.CATEGORIES) {
+            generation.incrementAndGet();
+            productsById.invalidateAll();
+            productIdsBySku.invalidateAll();
+        }
+    }
+
+    /**
+     * Checks whether the cache is enabled.
+     *
+     * @return true if products are cached
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics of the products by ID.
+     *
+     * @return The statistics of the ID cache
+     */
+    public CacheStats getByIdStats() {
+        return productsById.stats();
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics of the SKU to ID mapping.
+     *
+     * @return The statistics of the SKU cache
+     */
+    public CacheStats getBySkuStats() {
+        return productIdsBySku.stats();
+    }
+
+    private void put(ProductDto product, long loadedGeneration) {
+        if (generation.get() != loadedGeneration) {
+            return;
+        }
+        productsById.put(product.getId(), product);
+        productIdsBySku.put(product.getSku(), product.getId());
+    }
+}
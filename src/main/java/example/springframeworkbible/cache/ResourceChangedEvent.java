@@ -0,0 +1,26 @@
+package example.springframeworkbible.cache;
+
+/**
+ * Application event published by the services after a write, so caches holding
+ * representations of the changed resource can drop them.
+ *
+ * @param resource The kind of resource that changed
+ */
+public record ResourceChangedEvent(Resource resource) {
+
+    /**
+     * The kinds of resources whose changes are published.
+     */
+    public enum Resource {
+        PRODUCTS,
+        CATEGORIES
+    }
+
+    public static ResourceChangedEvent products() {
+        return new ResourceChangedEvent(Resource.PRODUCTS);
+    }
+
+    public static ResourceChangedEvent categories() {
+        return new ResourceChangedEvent(Resource.CATEGORIES);
+    }
+}
@@ -0,0 +1,311 @@
+package example.springframeworkbible.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.WebSessionManager;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully encoded GET responses, keyed by path and query parameters.
+ * <p>
+ * A hit is written straight from memory, without touching the services, the database or
+ * Jackson. Bodies are optionally stored gzipped as well and sent compressed to clients that
+ * accept it. Entries are fresh for the TTL; after that they are still served for the
+ * stale-while-revalidate window while a single background request per key renders a new one.
+ * The cache is bounded by the total size of the stored bodies and disabled unless
+ * app.cache.response.enabled is set.
+ * <p>
+ * Entries are dropped when the services publish a {@link ResourceChangedEvent}, which they do
+ * once the write has committed. Like the product cache, a response rendered across such an
+ * event is sent but not stored. Conditional requests, streaming requests and requests with
+ * Cache-Control: no-cache bypass the cache.
+ */
+@Slf4j
+@Component
+public class ResponseCacheWebFilter implements WebFilter {
+
+    private static final String CACHE_HEADER = "X-Cache";
+    private static final int MIN_GZIP_SIZE = 1024;
+    private static final PathPatternParser PATH_PATTERN_PARSER = new PathPatternParser();
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final boolean gzip;
+    private final List<PathPattern> paths;
+    private final Cache<String, CachedResponse> responses;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Incremented on every invalidation, responses rendered across an invalidation are not stored
+    private final AtomicLong generation = new AtomicLong();
+    // Background refreshes run on an exchange of their own, built like the ones of the HTTP handler
+    private final WebSessionManager sessionManager;
+    private final ServerCodecConfigurer codecConfigurer;
+    private final LocaleContextResolver localeContextResolver;
+
+    public ResponseCacheWebFilter(
+            WebSessionManager sessionManager,
+            ServerCodecConfigurer codecConfigurer,
+            LocaleContextResolver localeContextResolver,
+            @Value("${app.cache.response.enabled:false}") boolean enabled,
+            @Value("${app.cache.response.max-bytes:64MB}") DataSize maxBytes,
+            @Value("${app.cache.response.ttl:30s}") Duration ttl,
+            @Value("${app.cache.response.stale-while-revalidate:5m}") Duration staleWhileRevalidate,
+            @Value("${app.cache.response.gzip:true}") boolean gzip,
+            @Value("${app.cache.response.paths:/api/products/**,/api/categories/**}") String[] paths) {
+        this.sessionManager = sessionManager;
+        this.codecConfigurer = codecConfigurer;
+        this.localeContextResolver = localeContextResolver;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.gzip = gzip;
+        this.paths = Arrays.stream(paths)
+                .map(String::trim)
+                .map(PATH_PATTERN_PARSER::parse)
+                .toList();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight(key))
+                .expireAfterWrite(ttl.plus(staleWhileRevalidate))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param contentType The content type of the body
+     * @param etag The ETag header of the response, may be null
+     * @param lastModified The Last-Modified header of the response, may be null
+     * @param body The encoded body
+     * @param gzippedBody The gzipped body, or null if it is not stored compressed
+     * @param storedAtNanos When the response was stored, from System.nanoTime()
+     */
+    record CachedResponse(
+            MediaType contentType,
+            String etag,
+            String lastModified,
+            byte[] body,
+            byte[] gzippedBody,
+            long storedAtNanos) {
+
+        int weight(String key) {
+            return key.length() * 2 + body.length + (gzippedBody == null ? 0 : gzippedBody.length) + 128;
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || !isCacheable(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        String key = keyOf(exchange.getRequest());
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached == null) {
+            return renderAndStore(key, exchange, chain);
+        }
+        if (System.nanoTime() - cached.storedAtNanos() <= ttlNanos) {
+            return write(exchange, cached, "HIT");
+        }
+        revalidate(key, exchange, chain);
+        return write(exchange, cached, "STALE");
+    }
+
+    /**
+     * Drops the cached responses that may contain the changed resource.
+     * Products embed their categories, so a category change drops everything. The category
+     * facets count products, so they are dropped along with the product responses.
+     *
+     * @param event The change published by a service
+     */
+    @EventListener
+    public void onResourceChanged(ResourceChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (event.resource() == ResourceChangedEvent.Resource.CATEGORIES) {
+            responses.invalidateAll();
+        } else {
+            responses.asMap().keySet().removeIf(key ->
+                    key.startsWith("/api/products")
+                            || key.startsWith("/api/categories/product/")
+                            || key.startsWith("/api/categories/facets"));
+        }
+    }
+
+    private boolean isCacheable(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return false;
+        }
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey(HttpHeaders.IF_NONE_MATCH) || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+            return false;
+        }
+        if (headers.getCacheControl() != null && headers.getCacheControl().contains("no-cache")) {
+            return false;
+        }
+        for (MediaType accepted : headers.getAccept()) {
+            if (accepted.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON)
+                    || accepted.equalsTypeAndSubtype(MediaType.TEXT_EVENT_STREAM)) {
+                return false;
+            }
+        }
+        return paths.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    private static String keyOf(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        Map<String, List<String>> parameters = new TreeMap<>(request.getQueryParams());
+        char separator = '?';
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Runs the request and stores its response while it is written to the client.
+     */
+    private Mono<Void> renderAndStore(String key, ServerWebExchange exchange, WebFilterChain chain) {
+        long renderedGeneration = generation.get();
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator storingResponse = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(body)
+                        .map(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            store(key, renderedGeneration, getStatusCode(), getHeaders(), bytes);
+                            getHeaders().set(CACHE_HEADER, "MISS");
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+        return chain.filter(exchange.mutate().response(storingResponse).build());
+    }
+
+    /**
+     * Renders the request again in the background, unless a refresh of the key is already running.
+     * The refresh runs on a new exchange rather than a mutated copy of the current one: a mutated
+     * exchange delegates checkNotModified and the attributes to the original, so the ETag and
+     * Last-Modified headers would be written to the response that was already sent to the client.
+     */
+    private void revalidate(String key, ServerWebExchange exchange, WebFilterChain chain) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        long renderedGeneration = generation.get();
+        CapturingServerHttpResponse response = new CapturingServerHttpResponse(exchange.getResponse().bufferFactory());
+        ServerWebExchange refreshExchange = new DefaultServerWebExchange(
+                exchange.getRequest().mutate().build(), response, sessionManager, codecConfigurer, localeContextResolver);
+        chain.filter(refreshExchange)
+                .doOnSuccess(ignored -> store(key, renderedGeneration, response.getStatusCode(), response.getHeaders(), response.getBody()))
+                .doFinally(signal -> refreshing.remove(key))
+                .subscribe(null, ex -> log.warn("Failed to refresh cached response for {}", key, ex));
+    }
+
+    private void store(String key, long renderedGeneration, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        MediaType contentType = headers.getContentType();
+        if ((status != null && status.value() != HttpStatus.OK.value())
+                || contentType == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                || generation.get() != renderedGeneration) {
+            return;
+        }
+        byte[] gzippedBody = gzip && body.length >= MIN_GZIP_SIZE ? gzip(body) : null;
+        responses.put(key, new CachedResponse(
+                contentType,
+                headers.getFirst(HttpHeaders.ETAG),
+                headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                body,
+                gzippedBody,
+                System.nanoTime()));
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String state) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        boolean compressed = cached.gzippedBody() != null && acceptsGzip(exchange.getRequest());
+        byte[] body = compressed ? cached.gzippedBody() : cached.body();
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(body.length);
+        if (cached.etag() != null) {
+            headers.set(HttpHeaders.ETAG, cached.etag());
+        }
+        if (cached.lastModified() != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, cached.lastModified());
+        }
+        if (cached.gzippedBody() != null) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (compressed) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.set(CACHE_HEADER, state);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        return request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+                .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("gzip"));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
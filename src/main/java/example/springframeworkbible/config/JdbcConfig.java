@@ -0,0 +1,60 @@
+package example.springframeworkbible.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration of the blocking JDBC execution mode, enabled with the {@code jdbc} profile.
+ * <p>
+ * The product and category services run their statements through a HikariCP pool instead of R2DBC,
+ * each call on its own virtual thread. The Spring Boot DataSource auto-configuration backs off as soon
+ * as an R2DBC ConnectionFactory exists, so the pool is declared here from the spring.datasource properties.
+ * The category dictionary, facet counters and search index keep loading through R2DBC.
+ */
+@Configuration
+@Profile("jdbc")
+public class JdbcConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Transactions of the JDBC services. The transaction manager is deliberately not a bean: @Transactional
+     * looks up the single TransactionManager bean, which has to remain the R2DBC one.
+     */
+    @Bean
+    public TransactionTemplate jdbcTransactionTemplate(HikariDataSource dataSource) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Scheduler running every blocking JDBC call on a new virtual thread, so a call waiting for the
+     * database or for a pooled connection parks its virtual thread instead of a Netty event loop.
+     * The number of concurrent statements is bounded by the Hikari pool, not by the scheduler.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jdbc");
+    }
+}
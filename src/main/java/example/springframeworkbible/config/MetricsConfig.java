@@ -0,0 +1,88 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.metrics.RepositoryMetricsInterceptor;
+import example.springframeworkbible.metrics.TimedConnectionFactory;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+/**
+ * Configuration of the metrics that Spring Boot does not record on its own.
+ * <p>
+ * Boot already times every controller route ({@code http.server.requests}) and publishes the
+ * acquired/idle/pending gauges of the connection pool ({@code r2dbc.pool.*}). This adds the time
+ * spent waiting for a pooled connection and times reactive repository methods over their whole
+ * execution rather than over the assembly of their Mono or Flux.
+ * <p>
+ * The post processors are static so they do not force early initialization of this class, and
+ * they resolve the MeterRegistry lazily on first use.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the application connection pool to time connection acquisition.
+     */
+    @Bean
+    public static BeanPostProcessor timedConnectionFactoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TimedConnectionFactoryPostProcessor(SingletonSupplier.of(meterRegistry::getObject));
+    }
+
+    /**
+     * Adds the timing interceptor to every repository proxy.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        SingletonSupplier<MeterRegistry> registry = SingletonSupplier.of(meterRegistry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryMetricsInterceptor(registry, repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Post processor wrapping the connection factory of the application pool.
+     * It runs after the other connection factory decorators so the timer covers them too.
+     */
+    static class TimedConnectionFactoryPostProcessor implements BeanPostProcessor, Ordered {
+
+        static final int ORDER = 100;
+
+        private final Supplier<MeterRegistry> meterRegistry;
+
+        TimedConnectionFactoryPostProcessor(Supplier<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof ConnectionFactory connectionFactory
+                    && R2dbcConnectionUtils.unwrap(connectionFactory, ConnectionPool.class) != null) {
+                return new TimedConnectionFactory(connectionFactory, beanName, meterRegistry);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+}
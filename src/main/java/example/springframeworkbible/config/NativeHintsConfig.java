@@ -0,0 +1,82 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.domain.Product;
+import example.springframeworkbible.dto.ApiResponse;
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.BulkResult;
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.CursorPage;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ProductQuery;
+import example.springframeworkbible.service.CategoryService;
+import example.springframeworkbible.service.ProductService;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Runtime hints for the GraalVM native image.
+ * <p>
+ * Spring AOT derives most hints from the bean definitions and controller signatures, but it cannot
+ * see everything reached through reflection at runtime: the generic {@link ApiResponse} payloads,
+ * the Lombok DTOs bound and validated field by field, the entities read by the R2DBC converter and
+ * the JDBC repositories, and the JDK proxies created by the read replica routing. On the JVM these
+ * hints have no effect.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ApplicationRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final List<Class<?>> DTOS = List.of(
+                ApiResponse.class,
+                BulkItemResult.class,
+                BulkResult.class,
+                CategoryDto.class,
+                CategoryFacet.class,
+                CursorPage.class,
+                ProductDto.class,
+                ProductQuery.class);
+
+        private static final List<Class<?>> ENTITIES = List.of(Product.class, Category.class);
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Jackson reads and writes the DTOs through their Lombok getters and setters, including
+            // the payload types of ApiResponse and CursorPage that only appear as type arguments
+            bindingRegistrar.registerReflectionHints(hints.reflection(), DTOS.toArray(Class<?>[]::new));
+            for (Class<?> dto : DTOS) {
+                // Bean Validation reads the constraint annotations of the fields
+                hints.reflection().registerType(dto, MemberCategory.DECLARED_FIELDS);
+            }
+
+            // Entities are created and filled by Spring Data through reflection, and
+            // SchemaQualifyingNamingStrategy reads their @Table annotation at runtime
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+            hints.reflection().registerType(SchemaConfig.SchemaQualifyingNamingStrategy.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // The read-only routing advice is applied by a bean post processor, so AOT does not
+            // know the services are proxied
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(ProductService.class));
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(CategoryService.class));
+        }
+    }
+}
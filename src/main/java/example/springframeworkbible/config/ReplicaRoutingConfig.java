@@ -0,0 +1,153 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.routing.ReadOnly;
+import example.springframeworkbible.routing.ReadOnlyRoutingInterceptor;
+import example.springframeworkbible.routing.ReplicaRoutingConnectionFactory;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Configuration of read replica routing, enabled with {@code app.datasource.replicas.enabled=true}.
+ * <p>
+ * The application connection pool is wrapped in a {@link ReplicaRoutingConnectionFactory} holding one
+ * pool per replica URL. In the beans declaring {@link ReadOnly} methods, the Mono or Flux of every
+ * {@link ReadOnly} method is marked as read-only work and that of every other method as a write.
+ * The replica pools use the credentials, options and pool size of the spring.r2dbc properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Wraps the application connection pool in the routing connection factory.
+     * It runs before the profiler and metrics decorators, which then cover the replicas as well.
+     */
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(
+            ObjectProvider<R2dbcProperties> r2dbcProperties,
+            @Value("${app.datasource.replicas.urls}") List<String> urls,
+            @Value("${app.datasource.replicas.ejection-time:30s}") Duration ejectionTime,
+            @Value("${app.datasource.replicas.read-your-writes-window:0s}") Duration readYourWritesWindow) {
+        return new ReplicaRoutingPostProcessor(r2dbcProperties, urls, ejectionTime, readYourWritesWindow);
+    }
+
+    /**
+     * Marks the publishers returned by the beans declaring {@link ReadOnly} methods, on the bean class or
+     * its interfaces, as read-only work or as writes.
+     */
+    @Bean
+    public static AbstractAdvisingBeanPostProcessor readOnlyRoutingPostProcessor() {
+        return new ReadOnlyRoutingPostProcessor();
+    }
+
+    /**
+     * Publishes the gauges of the replica pools next to those of the application pool.
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ConnectionFactory connectionFactory) {
+        ReplicaRoutingConnectionFactory routing =
+                R2dbcConnectionUtils.unwrap(connectionFactory, ReplicaRoutingConnectionFactory.class);
+        return routing != null ? routing::bindTo : registry -> { };
+    }
+
+    static class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<R2dbcProperties> r2dbcProperties;
+        private final List<String> urls;
+        private final Duration ejectionTime;
+        private final Duration readYourWritesWindow;
+
+        ReplicaRoutingPostProcessor(
+                ObjectProvider<R2dbcProperties> r2dbcProperties,
+                List<String> urls,
+                Duration ejectionTime,
+                Duration readYourWritesWindow) {
+            this.r2dbcProperties = r2dbcProperties;
+            this.urls = urls;
+            this.ejectionTime = ejectionTime;
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof ConnectionPool pool) {
+                R2dbcProperties properties = r2dbcProperties.getObject();
+                List<ConnectionPool> replicas = IntStream.range(0, urls.size())
+                        .mapToObj(i -> createPool(properties, urls.get(i), "replica-" + i))
+                        .toList();
+                return new ReplicaRoutingConnectionFactory(pool, replicas, ejectionTime, readYourWritesWindow);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return MetricsConfig.TimedConnectionFactoryPostProcessor.ORDER - 2;
+        }
+
+        private ConnectionPool createPool(R2dbcProperties properties, String url, String name) {
+            ConnectionFactory connectionFactory = ConnectionFactories.get(
+                    R2dbcConnectionUtils.optionsBuilder(properties, url).build());
+            R2dbcProperties.Pool pool = properties.getPool();
+            return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                    .name(name)
+                    .initialSize(0)
+                    .maxSize(pool.getMaxSize())
+                    .maxIdleTime(pool.getMaxIdleTime())
+                    .build());
+        }
+    }
+
+    static class ReadOnlyRoutingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        ReadOnlyRoutingPostProcessor() {
+            this.advisor = new DefaultPointcutAdvisor(new ReadOnlyServicePointcut(), new ReadOnlyRoutingInterceptor());
+            this.beforeExistingAdvisors = true;
+        }
+    }
+
+    /**
+     * Matches the methods returning a publisher of the classes that declare at least one {@link ReadOnly}
+     * method or are annotated themselves, so the services are advised but repositories and controllers are not.
+     */
+    static class ReadOnlyServicePointcut extends StaticMethodMatcherPointcut {
+
+        ReadOnlyServicePointcut() {
+            setClassFilter(ReadOnlyServicePointcut::declaresReadOnly);
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Publisher.class.isAssignableFrom(method.getReturnType());
+        }
+
+        private static boolean declaresReadOnly(Class<?> type) {
+            return AnnotatedElementUtils.hasAnnotation(type, ReadOnly.class)
+                    || Arrays.stream(type.getMethods())
+                            .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, ReadOnly.class));
+        }
+    }
+}
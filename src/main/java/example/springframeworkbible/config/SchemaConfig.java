@@ -41,7 +41,7 @@ public class SchemaConfig {
     /**
      * Custom naming strategy that prepends the schema name to tables
      */
-    private static class SchemaQualifyingNamingStrategy implements NamingStrategy {
+    static class SchemaQualifyingNamingStrategy implements NamingStrategy {
         private final String defaultSchema;
 
         public SchemaQualifyingNamingStrategy(String defaultSchema) {
@@ -0,0 +1,107 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.metrics.TimedConnectionFactory;
+import example.springframeworkbible.profiling.SqlProfiler;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.Disposable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of connection pools bound to one schema each.
+ * <p>
+ * The default schema uses the application connection factory. Every other schema gets its own
+ * lazily created pool whose connections have the schema set as search_path when they are opened,
+ * so statements need no SET search_path round trip and pooled connections are never left pointing
+ * at another schema.
+ * <p>
+ * Each pool is decorated like the application pool: when a SqlProfiler is given its statements go
+ * through the profiling proxy, and when a MeterRegistry is given the pool publishes the r2dbc.pool
+ * gauges and the r2dbc.pool.acquire timer under the pool name {@code schema-<schema>}.
+ * Connections of the per-schema pools do not take part in transactions of the application
+ * transaction manager, which is bound to the application connection factory.
+ */
+public class SchemaConnectionPools implements Disposable {
+
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Option<String> SCHEMA_OPTION = Option.valueOf("schema");
+
+    private final ConnectionFactory defaultConnectionFactory;
+    private final String defaultSchema;
+    private final R2dbcProperties r2dbcProperties;
+    private final int poolMaxSize;
+    private final MeterRegistry meterRegistry;
+    private final SqlProfiler sqlProfiler;
+    private final Map<String, ConnectionFactory> connectionFactories = new ConcurrentHashMap<>();
+
+    public SchemaConnectionPools(
+            ConnectionFactory defaultConnectionFactory,
+            String defaultSchema,
+            R2dbcProperties r2dbcProperties,
+            int poolMaxSize,
+            MeterRegistry meterRegistry,
+            SqlProfiler sqlProfiler) {
+        this.defaultConnectionFactory = defaultConnectionFactory;
+        this.defaultSchema = defaultSchema;
+        this.r2dbcProperties = r2dbcProperties;
+        this.poolMaxSize = poolMaxSize;
+        this.meterRegistry = meterRegistry;
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    /**
+     * Gets the connection factory for a schema, creating its pool on first use.
+     *
+     * @param schema The schema to use
+     * @return The connection factory whose connections use the schema
+     */
+    public ConnectionFactory getConnectionFactory(String schema) {
+        if (schema == null || schema.equals(defaultSchema)) {
+            return defaultConnectionFactory;
+        }
+        return connectionFactories.computeIfAbsent(schema, this::createConnectionFactory);
+    }
+
+    @Override
+    public void dispose() {
+        connectionFactories.values().forEach(connectionFactory ->
+                R2dbcConnectionUtils.unwrap(connectionFactory, ConnectionPool.class).dispose());
+        connectionFactories.clear();
+    }
+
+    private ConnectionFactory createConnectionFactory(String schema) {
+        if (!SCHEMA_NAME.matcher(schema).matches()) {
+            throw new IllegalArgumentException("Invalid schema name: '" + schema + "'");
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(R2dbcConnectionUtils.optionsBuilder(r2dbcProperties)
+                .option(SCHEMA_OPTION, schema)
+                .build());
+        String poolName = "schema-" + schema;
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(poolName)
+                .initialSize(0)
+                .maxSize(poolMaxSize)
+                .build());
+        // Same order as the post processors of the application pool: the timer covers the profiling proxy
+        ConnectionFactory decorated = pool;
+        if (sqlProfiler != null) {
+            decorated = SqlProfilerConfig.profile(decorated, sqlProfiler);
+        }
+        if (meterRegistry != null) {
+            new ConnectionPoolMetrics(pool, poolName, Tags.empty()).bindTo(meterRegistry);
+            decorated = new TimedConnectionFactory(decorated, poolName, () -> meterRegistry);
+        }
+        return decorated;
+    }
+}
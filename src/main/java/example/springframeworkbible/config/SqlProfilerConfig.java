@@ -0,0 +1,96 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.profiling.RequestTaggingConnectionFactory;
+import example.springframeworkbible.profiling.SqlProfiler;
+import example.springframeworkbible.profiling.SqlProfilerEndpoint;
+import example.springframeworkbible.profiling.SqlProfilingWebFilter;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the SQL profiler, enabled with {@code app.sql-profiler.enabled=true}.
+ * <p>
+ * The application connection pool is wrapped in an r2dbc-proxy connection factory, so every
+ * statement of the repositories and of the DatabaseClient goes through the {@link SqlProfiler}.
+ * Beneath the proxy, connections are tagged with the request that acquired them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-profiler.enabled", havingValue = "true")
+public class SqlProfilerConfig {
+
+    @Bean
+    public SqlProfiler sqlProfiler(
+            @Value("${app.sql-profiler.n-plus-one-threshold:10}") int nPlusOneThreshold,
+            @Value("${app.sql-profiler.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+            @Value("${app.sql-profiler.history-size:100}") int historySize) {
+        return new SqlProfiler(nPlusOneThreshold, slowQueryThreshold, historySize);
+    }
+
+    @Bean
+    public SqlProfilingWebFilter sqlProfilingWebFilter(SqlProfiler sqlProfiler) {
+        return new SqlProfilingWebFilter(sqlProfiler);
+    }
+
+    @Bean
+    public SqlProfilerEndpoint sqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        return new SqlProfilerEndpoint(sqlProfiler);
+    }
+
+    /**
+     * Wraps the application connection pool in the profiling proxy.
+     * It runs before the metrics decorator, which then times the proxy as well.
+     */
+    @Bean
+    public static BeanPostProcessor sqlProfilerPostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new ProfilingConnectionFactoryPostProcessor(sqlProfiler);
+    }
+
+    static class ProfilingConnectionFactoryPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<SqlProfiler> sqlProfiler;
+
+        ProfilingConnectionFactoryPostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+            this.sqlProfiler = sqlProfiler;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // The pool may already be wrapped, e.g. by the replica routing connection factory
+            if (bean instanceof ConnectionFactory connectionFactory
+                    && R2dbcConnectionUtils.unwrap(connectionFactory, ConnectionPool.class) != null) {
+                return profile(connectionFactory, sqlProfiler.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return MetricsConfig.TimedConnectionFactoryPostProcessor.ORDER - 1;
+        }
+    }
+
+    /**
+     * Wraps a connection factory in the profiling proxy, tagging its connections with the request
+     * that acquired them. Also used for the pools created outside of the application context.
+     *
+     * @param connectionFactory The connection factory to profile
+     * @param sqlProfiler The profiler receiving the statements
+     * @return The profiling connection factory
+     */
+    static ConnectionFactory profile(ConnectionFactory connectionFactory, SqlProfiler sqlProfiler) {
+        return ProxyConnectionFactory.builder(new RequestTaggingConnectionFactory(connectionFactory))
+                .listener(sqlProfiler)
+                .build();
+    }
+}
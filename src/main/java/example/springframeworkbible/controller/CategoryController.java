@@ -2,13 +2,25 @@ package example.springframeworkbible.controller;
 
 import example.springframeworkbible.dto.ApiResponse;
 import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.CursorPage;
 import example.springframeworkbible.service.CategoryService;
+import example.springframeworkbible.util.ConditionalRequestUtils;
+import example.springframeworkbible.util.CursorUtils;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -16,6 +28,7 @@ import java.util.List;
  * This class defines the API endpoints for category operations.
  */
 @RestController
+@Validated
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
 public class CategoryController {
@@ -24,25 +37,64 @@ public class CategoryController {
     
     /**
      * Get all categories.
+     * Answers 304 Not Modified when the client already has the current version of the collection.
      *
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing all categories
      */
     @GetMapping
-    public Mono<ApiResponse<List<CategoryDto>>> getAllCategories() {
-        return categoryService.findAll()
-                .collectList()
-                .map(categories -> ApiResponse.success(categories, "Categories retrieved successfully"));
+    public Mono<ApiResponse<List<CategoryDto>>> getAllCategories(ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, categoryService.findCollectionVersion(),
+                () -> categoryService.findAll()
+                        .collectList()
+                        .map(categories -> ApiResponse.success(categories, "Categories retrieved successfully")));
+    }
+    
+    /**
+     * Stream all categories as NDJSON or server-sent events.
+     * Categories are written as they are read, with backpressure to the client,
+     * instead of being collected into a single response first.
+     *
+     * @return A stream of all categories
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CategoryDto> streamAllCategories() {
+        return categoryService.findAll();
+    }
+    
+    /**
+     * Get one page of categories using keyset pagination.
+     * Only used when a limit is given; without it all categories are returned.
+     *
+     * @param after The opaque cursor returned with the previous page, if any
+     * @param limit The maximum number of categories in the page
+     * @param includeTotal Whether to include the approximate total number of categories
+     * @param exchange The current exchange, used for conditional requests
+     * @return A response containing the page and the cursor of the next page
+     */
+    @GetMapping(params = "limit")
+    public Mono<ApiResponse<CursorPage<CategoryDto>>> getCategoriesPage(
+            @RequestParam(required = false) String after,
+            @RequestParam @Min(1) @Max(1000) int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            ServerWebExchange exchange) {
+        Long afterId = CursorUtils.decode(after);
+        return ConditionalRequestUtils.ifModified(exchange, categoryService.findCollectionVersion(),
+                () -> categoryService.findPage(afterId, limit, includeTotal)
+                        .map(page -> ApiResponse.success(page, "Categories retrieved successfully")));
     }
     
     /**
      * Get a category by ID.
      *
      * @param id The ID of the category to retrieve
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing the category
      */
     @GetMapping("/{id}")
-    public Mono<ApiResponse<CategoryDto>> getCategoryById(@PathVariable Long id) {
-        return categoryService.findById(id)
+    public Mono<ApiResponse<CategoryDto>> getCategoryById(@PathVariable Long id, ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, categoryService.findVersionById(id),
+                        () -> categoryService.findById(id), ConditionalRequestUtils::categoryVersion)
                 .map(category -> ApiResponse.success(category, "Category retrieved successfully"));
     }
     
@@ -50,11 +102,13 @@ public class CategoryController {
      * Get a category by name.
      *
      * @param name The name of the category to retrieve
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing the category
      */
     @GetMapping("/name/{name}")
-    public Mono<ApiResponse<CategoryDto>> getCategoryByName(@PathVariable String name) {
-        return categoryService.findByName(name)
+    public Mono<ApiResponse<CategoryDto>> getCategoryByName(@PathVariable String name, ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, categoryService.findVersionByName(name),
+                        () -> categoryService.findByName(name), ConditionalRequestUtils::categoryVersion)
                 .map(category -> ApiResponse.success(category, "Category retrieved successfully"));
     }
     
@@ -71,6 +125,36 @@ public class CategoryController {
                 .map(categories -> ApiResponse.success(categories, "Categories retrieved successfully"));
     }
     
+    /**
+     * Stream categories matching a name as NDJSON or server-sent events.
+     *
+     * @param name The name fragment to search for
+     * @return A stream of matching categories
+     */
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CategoryDto> streamSearchCategories(@RequestParam String name) {
+        return categoryService.searchByName(name);
+    }
+    
+    /**
+     * Get the number of products in every category that has any, most products first.
+     * Optionally scoped to products whose name contains a search term or whose price is in a range.
+     *
+     * @param q The text the product names must contain
+     * @param minPrice The minimum product price
+     * @param maxPrice The maximum product price
+     * @return A response containing the category facets
+     */
+    @GetMapping("/facets")
+    public Mono<ApiResponse<List<CategoryFacet>>> getCategoryFacets(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+            @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice) {
+        return categoryService.findFacets(q, minPrice, maxPrice)
+                .collectList()
+                .map(facets -> ApiResponse.success(facets, "Category facets retrieved successfully"));
+    }
+    
     /**
      * Create a new category.
      *
@@ -99,6 +183,22 @@ public class CategoryController {
                 .map(category -> ApiResponse.success(category, "Category updated successfully"));
     }
     
+    /**
+     * Partially update an existing category.
+     * Only the fields present in the body are validated and changed.
+     *
+     * @param id The ID of the category to update
+     * @param categoryDto The fields to change
+     * @return A response containing the updated category
+     */
+    @PatchMapping("/{id}")
+    public Mono<ApiResponse<CategoryDto>> patchCategory(
+            @PathVariable Long id, 
+            @RequestBody CategoryDto categoryDto) {
+        return categoryService.patch(id, categoryDto)
+                .map(category -> ApiResponse.success(category, "Category updated successfully"));
+    }
+    
     /**
      * Delete a category.
      *
@@ -123,4 +223,15 @@ public class CategoryController {
                 .collectList()
                 .map(categories -> ApiResponse.success(categories, "Categories retrieved successfully"));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Stream all categories for a product as NDJSON or server-sent events.
+     *
+     * @param productId The ID of the product
+     * @return A stream of categories for the product
+     */
+    @GetMapping(value = "/product/{productId}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CategoryDto> streamCategoriesByProductId(@PathVariable Long productId) {
+        return categoryService.findByProductId(productId);
+    }
+}
\ No newline at end of file
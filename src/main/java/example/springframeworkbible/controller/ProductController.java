@@ -1,13 +1,27 @@
 package example.springframeworkbible.controller;
 
 import example.springframeworkbible.dto.ApiResponse;
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.BulkResult;
+import example.springframeworkbible.dto.CursorPage;
 import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ProductQuery;
 import example.springframeworkbible.service.ProductService;
+import example.springframeworkbible.util.ConditionalRequestUtils;
+import example.springframeworkbible.util.CursorUtils;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -17,6 +31,7 @@ import java.util.List;
  * This class defines the API endpoints for product operations.
  */
 @RestController
+@Validated
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
@@ -25,25 +40,64 @@ public class ProductController {
     
     /**
      * Get all products.
+     * Answers 304 Not Modified when the client already has the current version of the collection.
      *
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing all products
      */
     @GetMapping
-    public Mono<ApiResponse<List<ProductDto>>> getAllProducts() {
-        return productService.findAll()
-                .collectList()
-                .map(products -> ApiResponse.success(products, "Products retrieved successfully"));
+    public Mono<ApiResponse<List<ProductDto>>> getAllProducts(ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, productService.findCollectionVersion(),
+                () -> productService.findAll()
+                        .collectList()
+                        .map(products -> ApiResponse.success(products, "Products retrieved successfully")));
+    }
+    
+    /**
+     * Stream all products as NDJSON or server-sent events.
+     * Products are written as they are read, with backpressure to the client,
+     * instead of being collected into a single response first.
+     *
+     * @return A stream of all products
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ProductDto> streamAllProducts() {
+        return productService.findAll();
+    }
+    
+    /**
+     * Get one page of products using keyset pagination.
+     * Only used when a limit is given; without it all products are returned.
+     *
+     * @param after The opaque cursor returned with the previous page, if any
+     * @param limit The maximum number of products in the page
+     * @param includeTotal Whether to include the approximate total number of products
+     * @param exchange The current exchange, used for conditional requests
+     * @return A response containing the page and the cursor of the next page
+     */
+    @GetMapping(params = "limit")
+    public Mono<ApiResponse<CursorPage<ProductDto>>> getProductsPage(
+            @RequestParam(required = false) String after,
+            @RequestParam @Min(1) @Max(1000) int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            ServerWebExchange exchange) {
+        Long afterId = CursorUtils.decode(after);
+        return ConditionalRequestUtils.ifModified(exchange, productService.findCollectionVersion(),
+                () -> productService.findPage(afterId, limit, includeTotal)
+                        .map(page -> ApiResponse.success(page, "Products retrieved successfully")));
     }
     
     /**
      * Get a product by ID.
      *
      * @param id The ID of the product to retrieve
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing the product
      */
     @GetMapping("/{id}")
-    public Mono<ApiResponse<ProductDto>> getProductById(@PathVariable Long id) {
-        return productService.findById(id)
+    public Mono<ApiResponse<ProductDto>> getProductById(@PathVariable Long id, ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, productService.findVersionById(id),
+                        () -> productService.findById(id), ConditionalRequestUtils::productVersion)
                 .map(product -> ApiResponse.success(product, "Product retrieved successfully"));
     }
     
@@ -51,11 +105,13 @@ public class ProductController {
      * Get a product by SKU.
      *
      * @param sku The SKU of the product to retrieve
+     * @param exchange The current exchange, used for conditional requests
      * @return A response containing the product
      */
     @GetMapping("/sku/{sku}")
-    public Mono<ApiResponse<ProductDto>> getProductBySku(@PathVariable String sku) {
-        return productService.findBySku(sku)
+    public Mono<ApiResponse<ProductDto>> getProductBySku(@PathVariable String sku, ServerWebExchange exchange) {
+        return ConditionalRequestUtils.ifModified(exchange, productService.findVersionBySku(sku),
+                        () -> productService.findBySku(sku), ConditionalRequestUtils::productVersion)
                 .map(product -> ApiResponse.success(product, "Product retrieved successfully"));
     }
     
@@ -72,6 +128,48 @@ public class ProductController {
                 .map(products -> ApiResponse.success(products, "Products retrieved successfully"));
     }
     
+    /**
+     * Search products by name, SKU and description, most relevant first.
+     *
+     * @param q The search text
+     * @param limit The maximum number of products to return
+     * @return A response containing matching products ordered by relevance
+     */
+    @GetMapping("/search/ranked")
+    public Mono<ApiResponse<List<ProductDto>>> searchProductsRanked(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return productService.searchRanked(q, limit)
+                .collectList()
+                .map(products -> ApiResponse.success(products, "Products retrieved successfully"));
+    }
+    
+    /**
+     * Query products by price range, category membership and creation or modification time,
+     * sorted by price, name or modification time.
+     * Timestamps are ISO date-times with an offset; the lower bounds are inclusive and the upper bounds exclusive.
+     * The next page is requested by passing the returned cursor as the after parameter of the same query.
+     *
+     * @param query The filters, sort order and page, bound from the query parameters
+     * @return A response containing the page and the cursor of the next page
+     */
+    @GetMapping("/query")
+    public Mono<ApiResponse<CursorPage<ProductDto>>> queryProducts(@Valid ProductQuery query) {
+        return productService.findByQuery(query)
+                .map(page -> ApiResponse.success(page, "Products retrieved successfully"));
+    }
+    
+    /**
+     * Stream products matching a name as NDJSON or server-sent events.
+     *
+     * @param name The name fragment to search for
+     * @return A stream of matching products
+     */
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ProductDto> streamSearchProducts(@RequestParam String name) {
+        return productService.searchByName(name);
+    }
+    
     /**
      * Create a new product.
      *
@@ -85,6 +183,33 @@ public class ProductController {
                 .map(product -> ApiResponse.success(product, "Product created successfully"));
     }
     
+    /**
+     * Create or update many products at once, matched by SKU.
+     * Accepts a JSON array or an NDJSON stream of products.
+     *
+     * @param products The products to create or update
+     * @return A response containing the outcome of every product
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ApiResponse<BulkResult>> bulkUpsertProducts(@RequestBody Flux<ProductDto> products) {
+        return productService.bulkUpsert(products)
+                .collectList()
+                .map(results -> ApiResponse.success(BulkResult.of(results), "Products upserted successfully"));
+    }
+    
+    /**
+     * Create or update many products at once, streaming the outcome of every product as NDJSON.
+     *
+     * @param products The products to create or update
+     * @return A stream with the outcome of every product
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResult> streamBulkUpsertProducts(@RequestBody Flux<ProductDto> products) {
+        return productService.bulkUpsert(products);
+    }
+    
     /**
      * Update an existing product.
      *
@@ -100,6 +225,22 @@ public class ProductController {
                 .map(product -> ApiResponse.success(product, "Product updated successfully"));
     }
     
+    /**
+     * Partially update an existing product.
+     * Only the fields present in the body are validated and changed.
+     *
+     * @param id The ID of the product to update
+     * @param productDto The fields to change
+     * @return A response containing the updated product
+     */
+    @PatchMapping("/{id}")
+    public Mono<ApiResponse<ProductDto>> patchProduct(
+            @PathVariable Long id, 
+            @RequestBody ProductDto productDto) {
+        return productService.patch(id, productDto)
+                .map(product -> ApiResponse.success(product, "Product updated successfully"));
+    }
+    
     /**
      * Delete a product.
      *
@@ -112,6 +253,20 @@ public class ProductController {
         return productService.delete(id);
     }
     
+    /**
+     * Delete many products at once.
+     * IDs that do not exist are ignored.
+     *
+     * @param ids The IDs of the products to delete
+     * @return A response containing the IDs of the deleted products
+     */
+    @DeleteMapping(params = "ids")
+    public Mono<ApiResponse<List<Long>>> deleteProducts(@RequestParam @NotEmpty List<Long> ids) {
+        return productService.deleteAll(ids)
+                .collectList()
+                .map(deleted -> ApiResponse.success(deleted, "Products deleted successfully"));
+    }
+    
     /**
      * Add a category to a product.
      *
@@ -141,4 +296,34 @@ public class ProductController {
         return productService.removeCategory(productId, categoryId)
                 .map(product -> ApiResponse.success(product, "Category removed from product successfully"));
     }
+    
+    /**
+     * Add several categories to a product at once.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories to add
+     * @return A response containing the updated product
+     */
+    @PostMapping("/{productId}/categories")
+    public Mono<ApiResponse<ProductDto>> addCategoriesToProduct(
+            @PathVariable Long productId,
+            @RequestBody List<@NotNull Long> categoryIds) {
+        return productService.addCategories(productId, categoryIds)
+                .map(product -> ApiResponse.success(product, "Categories added to product successfully"));
+    }
+    
+    /**
+     * Replace all categories of a product.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories the product should have
+     * @return A response containing the updated product
+     */
+    @PutMapping("/{productId}/categories")
+    public Mono<ApiResponse<ProductDto>> replaceProductCategories(
+            @PathVariable Long productId,
+            @RequestBody List<@NotNull Long> categoryIds) {
+        return productService.replaceCategories(productId, categoryIds)
+                .map(product -> ApiResponse.success(product, "Product categories replaced successfully"));
+    }
 }
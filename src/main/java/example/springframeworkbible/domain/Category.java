@@ -10,7 +10,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 
 /**
  * Category entity representing the categories table in the database.
@@ -34,9 +34,9 @@ public class Category {
     
     @CreatedDate
     @Column("created_at")
-    private LocalDateTime createdAt;
+    private OffsetDateTime createdAt;
     
     @LastModifiedDate
     @Column("updated_at")
-    private LocalDateTime updatedAt;
+    private OffsetDateTime updatedAt;
 }
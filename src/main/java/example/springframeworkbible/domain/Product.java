@@ -7,11 +7,13 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Product entity representing the products table in the database.
@@ -41,9 +43,17 @@ public class Product {
     
     @CreatedDate
     @Column("created_at")
-    private LocalDateTime createdAt;
+    private OffsetDateTime createdAt;
     
     @LastModifiedDate
     @Column("updated_at")
-    private LocalDateTime updatedAt;
+    private OffsetDateTime updatedAt;
+    
+    /**
+     * IDs of the categories of the product, sorted.
+     * Maintained by database triggers on product_categories, so it is never written from here.
+     */
+    @ReadOnlyProperty
+    @Column("category_ids")
+    private List<Long> categoryIds;
 } 
\ No newline at end of file
@@ -0,0 +1,39 @@
+package example.springframeworkbible.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item of a bulk operation.
+ * The index refers to the position of the item in the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    
+    /**
+     * Possible outcomes of a bulk item.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        FAILED
+    }
+    
+    private Long index;
+    
+    private Long id;
+    
+    private String sku;
+    
+    private Status status;
+    
+    private String message;
+}
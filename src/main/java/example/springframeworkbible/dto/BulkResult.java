@@ -0,0 +1,41 @@
+package example.springframeworkbible.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of a bulk operation with the outcome of every item.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    
+    private Integer total;
+    
+    private Map<BulkItemResult.Status, Long> counts;
+    
+    private List<BulkItemResult> items;
+    
+    /**
+     * Creates a summary from the item outcomes.
+     *
+     * @param items The outcome of every item, in request order
+     * @return A fully constructed BulkResult
+     */
+    public static BulkResult of(List<BulkItemResult> items) {
+        return BulkResult.builder()
+                .total(items.size())
+                .counts(items.stream()
+                        .collect(Collectors.groupingBy(BulkItemResult::getStatus, Collectors.counting())))
+                .items(items)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package example.springframeworkbible.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of products in one category, for faceted navigation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacet {
+    
+    private Long categoryId;
+    
+    private String name;
+    
+    private Long productCount;
+}
@@ -0,0 +1,72 @@
+package example.springframeworkbible.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import example.springframeworkbible.util.CursorUtils;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of a keyset (cursor) paginated collection.
+ * The next cursor is opaque to clients and is absent on the last page.
+ *
+ * @param <T> The type of the items in the page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    
+    private List<T> items;
+    
+    private Integer limit;
+    
+    private String nextCursor;
+    
+    private Long approximateTotal;
+    
+    /**
+     * Creates a page from items fetched with one row more than the page limit.
+     * The extra row is only used to detect whether a next page exists.
+     *
+     * @param fetched The fetched items, at most limit + 1
+     * @param limit The page size requested by the client
+     * @param idExtractor Function returning the keyset id of an item
+     * @param approximateTotal The approximate total number of items, or null if not requested
+     * @param <T> The type of the items
+     * @return A fully constructed CursorPage
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, Long> idExtractor, Long approximateTotal) {
+        CursorPage<T> page = of(fetched, limit, item -> CursorUtils.encode(idExtractor.apply(item)));
+        page.setApproximateTotal(approximateTotal);
+        return page;
+    }
+    
+    /**
+     * Creates a page from items fetched with one row more than the page limit,
+     * for collections whose cursor wraps more than the id.
+     *
+     * @param fetched The fetched items, at most limit + 1
+     * @param limit The page size requested by the client
+     * @param cursorEncoder Function returning the cursor pointing after an item
+     * @param <T> The type of the items
+     * @return A fully constructed CursorPage
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, String> cursorEncoder) {
+        boolean hasNext = fetched.size() > limit;
+        List<T> items = hasNext ? new ArrayList<>(fetched.subList(0, limit)) : fetched;
+        
+        return CursorPage.<T>builder()
+                .items(items)
+                .limit(limit)
+                .nextCursor(hasNext ? cursorEncoder.apply(items.get(items.size() - 1)) : null)
+                .build();
+    }
+}
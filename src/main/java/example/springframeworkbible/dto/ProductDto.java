@@ -10,7 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
@@ -39,9 +39,9 @@ public class ProductDto {
     @Size(min = 3, max = 50, message = "SKU must be between 3 and 50 characters")
     private String sku;
     
-    private LocalDateTime createdAt;
+    private OffsetDateTime createdAt;
     
-    private LocalDateTime updatedAt;
+    private OffsetDateTime updatedAt;
     
     private List<CategoryDto> categories;
 } 
\ No newline at end of file
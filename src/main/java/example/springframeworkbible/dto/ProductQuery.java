@@ -0,0 +1,71 @@
+package example.springframeworkbible.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Filter, sort order and page of a product query.
+ * Every filter is optional; the filters that are given must all match.
+ * Timestamps are ISO date-times with an offset, such as 2024-01-31T00:00:00Z.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQuery {
+    
+    @PositiveOrZero(message = "Minimum price must not be negative")
+    private BigDecimal minPrice;
+    
+    @PositiveOrZero(message = "Maximum price must not be negative")
+    private BigDecimal maxPrice;
+    
+    /**
+     * Matches products in at least one of these categories.
+     */
+    private List<Long> categoryIds;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdTo;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime updatedFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime updatedTo;
+    
+    @Builder.Default
+    @Pattern(regexp = "price|name|updatedAt", message = "Sort must be one of price, name, updatedAt")
+    private String sort = "name";
+    
+    @Builder.Default
+    @Pattern(regexp = "asc|desc", message = "Direction must be asc or desc")
+    private String direction = "asc";
+    
+    // An empty ?limit= binds null over the default, which must be rejected before it reaches the SQL
+    @Builder.Default
+    @NotNull(message = "Limit must not be empty")
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 1000, message = "Limit must be at most 1000")
+    private Integer limit = 50;
+    
+    /**
+     * Cursor of the previous page, as returned in its nextCursor. Only valid with the same sort and direction.
+     */
+    private String after;
+}
@@ -0,0 +1,45 @@
+package example.springframeworkbible.dto;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Version of a resource representation, used to answer conditional GET requests.
+ * The entity tag is weak because every response embeds its own timestamp, so two
+ * responses for the same version are equivalent but not byte-for-byte identical.
+ *
+ * @param etag The weak entity tag
+ * @param lastModified The time of the last modification
+ */
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    /**
+     * Creates a version from a modification time and values that further tell versions apart,
+     * such as an ID or the number of items of a collection.
+     *
+     * @param lastModified The time of the last modification, or null if there is none
+     * @param discriminators Values that change with the representation along with the modification time
+     * @return The version
+     */
+    public static ResourceVersion of(Instant lastModified, long... discriminators) {
+        Instant modified = lastModified != null ? lastModified.truncatedTo(ChronoUnit.MICROS) : Instant.EPOCH;
+        StringBuilder etag = new StringBuilder("W/\"")
+                .append(Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, modified)));
+        for (long discriminator : discriminators) {
+            etag.append('-').append(Long.toHexString(discriminator));
+        }
+        return new ResourceVersion(etag.append('"').toString(), modified);
+    }
+
+    /**
+     * Creates a version from a modification time read through an entity.
+     *
+     * @param lastModified The time of the last modification, or null
+     * @param discriminators Values that change with the representation along with the modification time
+     * @return The version
+     */
+    public static ResourceVersion of(OffsetDateTime lastModified, long... discriminators) {
+        return of(lastModified != null ? lastModified.toInstant() : null, discriminators);
+    }
+}
@@ -0,0 +1,17 @@
+package example.springframeworkbible.exception;
+
+/**
+ * Exception thrown when a request is syntactically valid but carries invalid values.
+ * This maps to a 400 Bad Request response.
+ */
+public class BadRequestException extends RuntimeException {
+    
+    /**
+     * Creates a new BadRequestException with a specific message.
+     *
+     * @param message The error message
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
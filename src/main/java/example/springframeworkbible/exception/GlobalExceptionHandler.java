@@ -40,6 +40,27 @@ public class GlobalExceptionHandler {
                 .body(response));
     }
 
+    /**
+     * Handles BadRequestException.
+     *
+     * @param ex The exception that was thrown
+     * @param exchange The current server exchange
+     * @return A standardized error response
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public Mono<ResponseEntity<ApiResponse<Void>>> handleBadRequestException(
+            BadRequestException ex, ServerWebExchange exchange) {
+        
+        ApiResponse<Void> response = ApiResponse.error(
+                HttpStatus.BAD_REQUEST, 
+                ex.getMessage());
+        response.setPath(exchange.getRequest().getPath().value());
+        
+        return Mono.just(ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(response));
+    }
+
     /**
      * Handles validation errors from @Valid annotations.
      *
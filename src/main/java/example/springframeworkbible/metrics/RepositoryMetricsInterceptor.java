@@ -0,0 +1,73 @@
+package example.springframeworkbible.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Repository interceptor timing the execution of reactive repository methods.
+ * <p>
+ * Spring Data's own invocation listener only measures the call that assembles the
+ * Mono or Flux, which returns before any SQL runs. This interceptor starts the timer
+ * when the result is subscribed and stops it when it completes, fails or is cancelled,
+ * so the recorded time covers the query round trip and the row mapping.
+ * The metric uses the name and tags of Spring Boot's repository metrics.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    /**
+     * Name of the repository method timer.
+     */
+    public static final String METRIC = "spring.data.repository.invocations";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final String repository;
+
+    public RepositoryMetricsInterceptor(Supplier<MeterRegistry> meterRegistry, Class<?> repositoryInterface) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String method = invocation.getMethod().getName();
+        if (result instanceof Mono<?> mono) {
+            return mono.transformDeferred(source -> {
+                Timer.Sample sample = Timer.start(meterRegistry.get());
+                return source
+                        .doOnSuccess(value -> stop(sample, method, "SUCCESS", null))
+                        .doOnError(ex -> stop(sample, method, "ERROR", ex))
+                        .doOnCancel(() -> stop(sample, method, "CANCELED", null));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.transformDeferred(source -> {
+                Timer.Sample sample = Timer.start(meterRegistry.get());
+                return source
+                        .doOnComplete(() -> stop(sample, method, "SUCCESS", null))
+                        .doOnError(ex -> stop(sample, method, "ERROR", ex))
+                        .doOnCancel(() -> stop(sample, method, "CANCELED", null));
+            });
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String method, String state, Throwable ex) {
+        sample.stop(Timer.builder(METRIC)
+                .description("Duration of repository invocations")
+                .tags(Tags.of(
+                        Tag.of("repository", repository),
+                        Tag.of("method", method),
+                        Tag.of("state", state),
+                        Tag.of("exception", ex == null ? "None" : ex.getClass().getSimpleName())))
+                .register(meterRegistry.get()));
+    }
+}
@@ -0,0 +1,86 @@
+package example.springframeworkbible.metrics;
+
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Connection factory decorator recording how long callers wait for a connection.
+ * <p>
+ * Wrapped around the application connection pool, the {@code r2dbc.pool.acquire} timer
+ * measures the time from the connection request to its delivery, including the time spent
+ * queued while the pool is exhausted. It complements the acquired/idle/pending gauges that
+ * Spring Boot registers for the pool, which it still finds through {@link Wrapped#unwrap()}.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Closeable, Disposable {
+
+    /**
+     * Name of the connection acquisition timer.
+     */
+    public static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final ConnectionFactory delegate;
+    private final String name;
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    public TimedConnectionFactory(ConnectionFactory delegate, String name, Supplier<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnSuccess(connection -> record(start, connection != null ? "success" : "empty"))
+                    .doOnError(ex -> record(start, "error"))
+                    .doOnCancel(() -> record(start, "canceled"));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        Closeable closeable = R2dbcConnectionUtils.unwrap(delegate, Closeable.class);
+        return closeable != null ? Mono.from(closeable.close()) : Mono.empty();
+    }
+
+    @Override
+    public void dispose() {
+        Disposable disposable = R2dbcConnectionUtils.unwrap(delegate, Disposable.class);
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    private void record(long start, String outcome) {
+        Timer.builder(ACQUIRE_METRIC)
+                .description("Time spent waiting for a connection from the pool")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry.get())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
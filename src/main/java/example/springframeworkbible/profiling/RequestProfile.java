@@ -0,0 +1,83 @@
+package example.springframeworkbible.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statements executed on behalf of one HTTP request.
+ * <p>
+ * A profile is put in the Reactor Context by {@link SqlProfilingWebFilter} and picked up by
+ * {@link RequestTaggingConnectionFactory} when the request acquires a connection. Statements
+ * may complete on different threads, so the counters are thread-safe.
+ */
+public class RequestProfile {
+
+    /**
+     * Name of the Reactor Context attribute holding the profile of the current request.
+     */
+    public static final String CONTEXT_KEY = RequestProfile.class.getName();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id = SEQUENCE.incrementAndGet();
+    private final String method;
+    private final String path;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, LongAdder> countsByShape = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder databaseNanos = new LongAdder();
+
+    public RequestProfile(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Records one executed statement.
+     *
+     * @param shape The normalized text of the statement
+     * @param duration The execution time of the statement
+     */
+    void record(String shape, Duration duration) {
+        countsByShape.computeIfAbsent(shape, key -> new LongAdder()).increment();
+        statements.increment();
+        databaseNanos.add(duration.toNanos());
+    }
+
+    long getStatements() {
+        return statements.sum();
+    }
+
+    Duration getDatabaseTime() {
+        return Duration.ofNanos(databaseNanos.sum());
+    }
+
+    Duration getElapsed() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    Map<String, LongAdder> getCountsByShape() {
+        return countsByShape;
+    }
+}
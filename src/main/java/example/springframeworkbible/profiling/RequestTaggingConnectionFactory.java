@@ -0,0 +1,42 @@
+package example.springframeworkbible.profiling;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Connection factory decorator that attaches the {@link RequestProfile} of the Reactor Context
+ * to every connection it hands out.
+ * <p>
+ * It sits beneath the r2dbc-proxy layer, so the statement listener sees a {@link TaggedConnection}
+ * as the original connection of each statement and can tell which request executed it.
+ */
+public class RequestTaggingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+
+    public RequestTaggingConnectionFactory(ConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            RequestProfile profile = context.getOrDefault(RequestProfile.CONTEXT_KEY, null);
+            return Mono.<Connection>from(delegate.create())
+                    .map(connection -> new TaggedConnection(connection, profile));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+}
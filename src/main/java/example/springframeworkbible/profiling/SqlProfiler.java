@@ -0,0 +1,244 @@
+package example.springframeworkbible.profiling;
+
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * r2dbc-proxy listener recording every executed statement.
+ * <p>
+ * Each statement is attributed to the HTTP request that acquired its connection. Statements
+ * slower than the slow-query threshold are logged and kept in a bounded history. When a request
+ * completes, every statement shape it executed more often than the N+1 threshold is reported,
+ * which is the signature of a per-row lookup inside a loop.
+ */
+@Slf4j
+public class SqlProfiler implements ProxyExecutionListener {
+
+    private static final String ROWS_KEY = SqlProfiler.class.getName() + ".rows";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|(?<![\\w$])\\d+(?:\\.\\d+)?\\b");
+
+    private final int nPlusOneThreshold;
+    private final Duration slowQueryThreshold;
+    private final int historySize;
+
+    private final Deque<StatementRecord> slowQueries = new ArrayDeque<>();
+    private final Deque<RequestSummary> recentRequests = new ArrayDeque<>();
+    private final Deque<RequestSummary> flaggedRequests = new ArrayDeque<>();
+
+    public SqlProfiler(int nPlusOneThreshold, Duration slowQueryThreshold, int historySize) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.historySize = historySize;
+    }
+
+    /**
+     * A statement execution.
+     *
+     * @param sql The statement text, several statements of a batch are joined with "; "
+     * @param bindings The number of binding sets, more than one for a statement executed with Statement.add()
+     * @param rows The number of rows read from the result
+     * @param durationMillis The execution time, including the consumption of the result
+     * @param success Whether the statement succeeded
+     * @param requestId The ID of the originating request, or null outside of a request
+     * @param request The method and path of the originating request, or null outside of a request
+     * @param executedAt When the statement completed
+     */
+    public record StatementRecord(
+            String sql,
+            int bindings,
+            long rows,
+            double durationMillis,
+            boolean success,
+            Long requestId,
+            String request,
+            Instant executedAt) {
+    }
+
+    /**
+     * The statements executed by a completed request.
+     *
+     * @param id The ID of the request
+     * @param request The method and path of the request
+     * @param startedAt When the request started
+     * @param durationMillis The duration of the request
+     * @param statements The number of executed statements
+     * @param databaseMillis The time spent executing statements
+     * @param repeatedStatements Statement shapes executed more often than the N+1 threshold, with their count
+     */
+    public record RequestSummary(
+            long id,
+            String request,
+            Instant startedAt,
+            double durationMillis,
+            long statements,
+            double databaseMillis,
+            Map<String, Long> repeatedStatements) {
+    }
+
+    @Override
+    public void eachQueryResult(QueryExecutionInfo execInfo) {
+        AtomicLong rows = execInfo.getValueStore().get(ROWS_KEY, AtomicLong.class);
+        if (rows == null) {
+            rows = new AtomicLong();
+            execInfo.getValueStore().put(ROWS_KEY, rows);
+        }
+        rows.incrementAndGet();
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        String sql = execInfo.getQueries().stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "));
+        int bindings = execInfo.getQueries().stream()
+                .mapToInt(query -> query.getBindingsList().size())
+                .sum();
+        AtomicLong rows = execInfo.getValueStore().get(ROWS_KEY, AtomicLong.class);
+        Duration duration = execInfo.getExecuteDuration();
+        RequestProfile profile = execInfo.getConnectionInfo().getOriginalConnection() instanceof TaggedConnection tagged
+                ? tagged.getProfile()
+                : null;
+
+        if (profile != null) {
+            profile.record(shapeOf(sql), duration);
+        }
+
+        if (duration.compareTo(slowQueryThreshold) >= 0) {
+            StatementRecord record = new StatementRecord(
+                    sql,
+                    bindings,
+                    rows == null ? 0 : rows.get(),
+                    toMillis(duration),
+                    execInfo.isSuccess(),
+                    profile == null ? null : profile.getId(),
+                    profile == null ? null : describe(profile),
+                    Instant.now());
+            log.warn("Slow query ({} ms, {} bindings, {} rows) for {}: {}",
+                    record.durationMillis(), record.bindings(), record.rows(),
+                    record.request() == null ? "no request" : record.request(), sql);
+            append(slowQueries, record);
+        }
+    }
+
+    /**
+     * Completes the profile of a request and reports repeated statements.
+     *
+     * @param profile The profile of the completed request
+     */
+    public void complete(RequestProfile profile) {
+        if (profile.getStatements() == 0) {
+            return;
+        }
+        Map<String, Long> repeated = profile.getCountsByShape().entrySet().stream()
+                .filter(entry -> entry.getValue().sum() > nPlusOneThreshold)
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(adder -> -adder.sum())))
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(),
+                        (first, second) -> first, LinkedHashMap::new));
+        RequestSummary summary = new RequestSummary(
+                profile.getId(),
+                describe(profile),
+                profile.getStartedAt(),
+                toMillis(profile.getElapsed()),
+                profile.getStatements(),
+                toMillis(profile.getDatabaseTime()),
+                repeated);
+
+        append(recentRequests, summary);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((shape, count) -> log.warn("Possible N+1 query in {}: statement executed {} times: {}",
+                    summary.request(), count, shape));
+            append(flaggedRequests, summary);
+        }
+    }
+
+    /**
+     * Gets the most recent slow statements, newest first.
+     *
+     * @return The slow statements
+     */
+    public List<StatementRecord> getSlowQueries() {
+        return snapshot(slowQueries);
+    }
+
+    /**
+     * Gets the most recent requests that executed statements, newest first.
+     *
+     * @return The request summaries
+     */
+    public List<RequestSummary> getRecentRequests() {
+        return snapshot(recentRequests);
+    }
+
+    /**
+     * Gets the most recent requests flagged for repeated statements, newest first.
+     *
+     * @return The request summaries
+     */
+    public List<RequestSummary> getFlaggedRequests() {
+        return snapshot(flaggedRequests);
+    }
+
+    /**
+     * Clears the recorded history.
+     */
+    public void reset() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        synchronized (recentRequests) {
+            recentRequests.clear();
+        }
+        synchronized (flaggedRequests) {
+            flaggedRequests.clear();
+        }
+    }
+
+    /**
+     * Normalizes a statement so executions that differ only in literals or layout share a shape.
+     *
+     * @param sql The statement text
+     * @return The statement shape
+     */
+    static String shapeOf(String sql) {
+        return WHITESPACE.matcher(LITERAL.matcher(sql).replaceAll("?")).replaceAll(" ").trim();
+    }
+
+    private <T> void append(Deque<T> history, T item) {
+        synchronized (history) {
+            history.addFirst(item);
+            while (history.size() > historySize) {
+                history.removeLast();
+            }
+        }
+    }
+
+    private static <T> List<T> snapshot(Deque<T> history) {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    private static String describe(RequestProfile profile) {
+        return profile.getMethod() + " " + profile.getPath();
+    }
+
+    private static double toMillis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,36 @@
+package example.springframeworkbible.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the SQL profiler at {@code /actuator/sqlprofiler}.
+ * A DELETE request clears the recorded history.
+ */
+@Endpoint(id = "sqlprofiler")
+public class SqlProfilerEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("flaggedRequests", sqlProfiler.getFlaggedRequests());
+        profile.put("slowQueries", sqlProfiler.getSlowQueries());
+        profile.put("recentRequests", sqlProfiler.getRecentRequests());
+        return profile;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
@@ -0,0 +1,29 @@
+package example.springframeworkbible.profiling;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Web filter opening a {@link RequestProfile} for every request and completing it once the
+ * response has been written.
+ */
+public class SqlProfilingWebFilter implements WebFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilingWebFilter(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestProfile profile = new RequestProfile(
+                exchange.getRequest().getMethod().name(),
+                exchange.getRequest().getPath().value());
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestProfile.CONTEXT_KEY, profile))
+                .doFinally(signal -> sqlProfiler.complete(profile));
+    }
+}
@@ -42,4 +42,41 @@ public interface CategoryRepository extends ReactiveCrudRepository<Category, Lon
            "JOIN product_categories pc ON c.id = pc.category_id " +
            "WHERE pc.product_id = :productId")
     Flux<Category> findCategoriesByProductId(Long productId);
+    
+    /**
+     * Find the IDs of the categories associated with a given product.
+     *
+     * @param productId The ID of the product
+     * @return A Flux of category IDs associated with the product, ordered by ID
+     */
+    @Query("SELECT category_id FROM product_categories WHERE product_id = :productId ORDER BY category_id")
+    Flux<Long> findCategoryIdsByProductId(Long productId);
+    
+    /**
+     * Find which of the given category IDs exist.
+     *
+     * @param ids The category IDs to check
+     * @return A Flux of the IDs that exist
+     */
+    @Query("SELECT id FROM categories WHERE id = ANY(:ids)")
+    Flux<Long> findExistingIds(Long[] ids);
+    
+    /**
+     * Find the page of categories following the given id, ordered by id.
+     *
+     * @param afterId The id of the last category of the previous page (0 for the first page)
+     * @param limit The maximum number of categories to return
+     * @return A Flux of at most limit categories
+     */
+    @Query("SELECT * FROM categories WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Category> findPageAfter(Long afterId, int limit);
+    
+    /**
+     * Estimate the number of categories from the planner statistics.
+     * This avoids a full COUNT(*) scan and is only as fresh as the last ANALYZE.
+     *
+     * @return A Mono containing the approximate number of categories
+     */
+    @Query("SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'categories'::regclass")
+    Mono<Long> estimateCount();
 }
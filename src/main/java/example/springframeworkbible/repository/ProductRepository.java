@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+
 /**
  * Reactive repository for Product entities.
  * This interface provides methods for CRUD operations and custom queries.
@@ -32,11 +34,49 @@ public interface ProductRepository extends ReactiveCrudRepository<Product, Long>
     @Query("SELECT * FROM products WHERE LOWER(name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Flux<Product> findByNameContainingIgnoreCase(String name);
     
+    /**
+     * Search products by name, SKU and description, most relevant first.
+     * Matches full-text terms in the name and description as well as substrings of the
+     * name and SKU; every predicate is backed by a GIN index.
+     *
+     * @param query The search text
+     * @param limit The maximum number of products to return
+     * @return A Flux of matching products ordered by relevance
+     */
+    @Query("SELECT * FROM products " +
+           "WHERE search_vector @@ websearch_to_tsquery('simple', :query) " +
+           "OR LOWER(name) LIKE '%' || LOWER(:query) || '%' " +
+           "OR LOWER(sku) LIKE '%' || LOWER(:query) || '%' " +
+           "ORDER BY ts_rank(search_vector, websearch_to_tsquery('simple', :query)) " +
+           "+ similarity(LOWER(name), LOWER(:query)) " +
+           "+ similarity(LOWER(sku), LOWER(:query)) DESC, id " +
+           "LIMIT :limit")
+    Flux<Product> searchRanked(String query, int limit);
+    
     /**
      * Find products with a price less than or equal to the given value.
      *
      * @param maxPrice The maximum price
      * @return A Flux of products matching the criteria
      */
-    Flux<Product> findByPriceLessThanEqual(Double maxPrice);
+    Flux<Product> findByPriceLessThanEqual(BigDecimal maxPrice);
+    
+    /**
+     * Find the page of products following the given id, ordered by id.
+     *
+     * @param afterId The id of the last product of the previous page (0 for the first page)
+     * @param limit The maximum number of products to return
+     * @return A Flux of at most limit products
+     */
+    @Query("SELECT * FROM products WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Product> findPageAfter(Long afterId, int limit);
+    
+    /**
+     * Estimate the number of products from the planner statistics.
+     * This avoids a full COUNT(*) scan and is only as fresh as the last ANALYZE.
+     *
+     * @return A Mono containing the approximate number of products
+     */
+    @Query("SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'products'::regclass")
+    Mono<Long> estimateCount();
 }
@@ -0,0 +1,152 @@
+package example.springframeworkbible.repository.jdbc;
+
+import example.springframeworkbible.domain.Category;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.core.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Blocking repository for Category entities, used by the {@code jdbc} profile.
+ * It runs the same queries as the reactive CategoryRepository through JdbcClient;
+ * every method blocks the calling thread until the statement completes.
+ */
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JdbcCategoryRepository {
+    
+    /**
+     * Maps a categories row.
+     */
+    public static final RowMapper<Category> CATEGORY_ROW_MAPPER = JdbcCategoryRepository::mapCategory;
+    
+    private final JdbcClient jdbcClient;
+    
+    /**
+     * Find a category by its ID.
+     *
+     * @param id The ID to search for
+     * @return The category if found
+     */
+    public Optional<Category> findById(Long id) {
+        return jdbcClient.sql("SELECT * FROM categories WHERE id = :id")
+                .param("id", id)
+                .query(CATEGORY_ROW_MAPPER)
+                .optional();
+    }
+    
+    /**
+     * Find a category by its name.
+     *
+     * @param name The name to search for
+     * @return The category if found
+     */
+    public Optional<Category> findByName(String name) {
+        return jdbcClient.sql("SELECT * FROM categories WHERE name = :name")
+                .param("name", name)
+                .query(CATEGORY_ROW_MAPPER)
+                .optional();
+    }
+    
+    /**
+     * Find categories whose name contains the given text (case insensitive).
+     *
+     * @param name The name fragment to search for
+     * @return The categories matching the criteria
+     */
+    public List<Category> findByNameContainingIgnoreCase(String name) {
+        return jdbcClient.sql("SELECT * FROM categories WHERE LOWER(name) LIKE LOWER(CONCAT('%', :name, '%'))")
+                .param("name", name)
+                .query(CATEGORY_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Find the IDs of the categories associated with a given product.
+     *
+     * @param productId The ID of the product
+     * @return The category IDs associated with the product, ordered by ID
+     */
+    public List<Long> findCategoryIdsByProductId(Long productId) {
+        return jdbcClient.sql("SELECT category_id FROM product_categories " +
+                        "WHERE product_id = :productId ORDER BY category_id")
+                .param("productId", productId)
+                .query(Long.class)
+                .list();
+    }
+    
+    /**
+     * Find which of the given category IDs exist.
+     *
+     * @param ids The category IDs to check
+     * @return The IDs that exist
+     */
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        return jdbcClient.sql("SELECT id FROM categories WHERE id = ANY(:ids)")
+                .param("ids", new SqlArrayValue("bigint", ids.toArray()))
+                .query(Long.class)
+                .list();
+    }
+    
+    /**
+     * Find the page of categories following the given id, ordered by id.
+     *
+     * @param afterId The id of the last category of the previous page (0 for the first page)
+     * @param limit The maximum number of categories to return
+     * @return At most limit categories
+     */
+    public List<Category> findPageAfter(Long afterId, int limit) {
+        return jdbcClient.sql("SELECT * FROM categories WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .param("afterId", afterId)
+                .param("limit", limit)
+                .query(CATEGORY_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Estimate the number of categories from the planner statistics.
+     * This avoids a full COUNT(*) scan and is only as fresh as the last ANALYZE.
+     *
+     * @return The approximate number of categories
+     */
+    public long estimateCount() {
+        return jdbcClient.sql("SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'categories'::regclass")
+                .query(Long.class)
+                .single();
+    }
+    
+    /**
+     * Insert a new category.
+     * The database fills in the ID and the timestamps, which are returned with the inserted row.
+     *
+     * @param category The category to insert
+     * @return The inserted category
+     */
+    public Category insert(Category category) {
+        return jdbcClient.sql("INSERT INTO categories (name, description) VALUES (:name, :description) RETURNING *")
+                .param("name", category.getName())
+                .param("description", category.getDescription())
+                .query(CATEGORY_ROW_MAPPER)
+                .single();
+    }
+    
+    private static Category mapCategory(ResultSet rs, int rowNum) throws SQLException {
+        return Category.builder()
+                .id(rs.getObject("id", Long.class))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .updatedAt(rs.getObject("updated_at", OffsetDateTime.class))
+                .build();
+    }
+}
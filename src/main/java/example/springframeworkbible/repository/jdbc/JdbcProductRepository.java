@@ -0,0 +1,198 @@
+package example.springframeworkbible.repository.jdbc;
+
+import example.springframeworkbible.domain.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.core.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Blocking repository for Product entities, used by the {@code jdbc} profile.
+ * It runs the same queries as the reactive ProductRepository through JdbcClient;
+ * every method blocks the calling thread until the statement completes.
+ */
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JdbcProductRepository {
+    
+    /**
+     * Maps a products row, including its denormalized category IDs.
+     */
+    public static final RowMapper<Product> PRODUCT_ROW_MAPPER = JdbcProductRepository::mapProduct;
+    
+    private final JdbcClient jdbcClient;
+    
+    /**
+     * Find all products.
+     *
+     * @return All products
+     */
+    public List<Product> findAll() {
+        return jdbcClient.sql("SELECT * FROM products")
+                .query(PRODUCT_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Find a product by its ID.
+     *
+     * @param id The ID to search for
+     * @return The product if found
+     */
+    public Optional<Product> findById(Long id) {
+        return jdbcClient.sql("SELECT * FROM products WHERE id = :id")
+                .param("id", id)
+                .query(PRODUCT_ROW_MAPPER)
+                .optional();
+    }
+    
+    /**
+     * Find the products with the given IDs.
+     *
+     * @param ids The IDs to search for
+     * @return The products found, in no particular order
+     */
+    public List<Product> findAllById(Collection<Long> ids) {
+        return jdbcClient.sql("SELECT * FROM products WHERE id = ANY(:ids)")
+                .param("ids", new SqlArrayValue("bigint", ids.toArray()))
+                .query(PRODUCT_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Find a product by its SKU.
+     *
+     * @param sku The SKU to search for
+     * @return The product if found
+     */
+    public Optional<Product> findBySku(String sku) {
+        return jdbcClient.sql("SELECT * FROM products WHERE sku = :sku")
+                .param("sku", sku)
+                .query(PRODUCT_ROW_MAPPER)
+                .optional();
+    }
+    
+    /**
+     * Find products whose name contains the given text (case insensitive).
+     *
+     * @param name The name fragment to search for
+     * @return The products matching the criteria
+     */
+    public List<Product> findByNameContainingIgnoreCase(String name) {
+        return jdbcClient.sql("SELECT * FROM products WHERE LOWER(name) LIKE LOWER(CONCAT('%', :name, '%'))")
+                .param("name", name)
+                .query(PRODUCT_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Search products by name, SKU and description, most relevant first.
+     *
+     * @param query The search text
+     * @param limit The maximum number of products to return
+     * @return The matching products ordered by relevance
+     */
+    public List<Product> searchRanked(String query, int limit) {
+        return jdbcClient.sql("SELECT * FROM products " +
+                        "WHERE search_vector @@ websearch_to_tsquery('simple', :query) " +
+                        "OR LOWER(name) LIKE '%' || LOWER(:query) || '%' " +
+                        "OR LOWER(sku) LIKE '%' || LOWER(:query) || '%' " +
+                        "ORDER BY ts_rank(search_vector, websearch_to_tsquery('simple', :query)) " +
+                        "+ similarity(LOWER(name), LOWER(:query)) " +
+                        "+ similarity(LOWER(sku), LOWER(:query)) DESC, id " +
+                        "LIMIT :limit")
+                .param("query", query)
+                .param("limit", limit)
+                .query(PRODUCT_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Find the page of products following the given id, ordered by id.
+     *
+     * @param afterId The id of the last product of the previous page (0 for the first page)
+     * @param limit The maximum number of products to return
+     * @return At most limit products
+     */
+    public List<Product> findPageAfter(Long afterId, int limit) {
+        return jdbcClient.sql("SELECT * FROM products WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .param("afterId", afterId)
+                .param("limit", limit)
+                .query(PRODUCT_ROW_MAPPER)
+                .list();
+    }
+    
+    /**
+     * Estimate the number of products from the planner statistics.
+     * This avoids a full COUNT(*) scan and is only as fresh as the last ANALYZE.
+     *
+     * @return The approximate number of products
+     */
+    public long estimateCount() {
+        return jdbcClient.sql("SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'products'::regclass")
+                .query(Long.class)
+                .single();
+    }
+    
+    /**
+     * Insert a new product.
+     * The database fills in the ID and the timestamps, which are returned with the inserted row.
+     *
+     * @param product The product to insert
+     * @return The inserted product
+     */
+    public Product insert(Product product) {
+        return jdbcClient.sql("INSERT INTO products (name, description, price, sku) " +
+                        "VALUES (:name, :description, :price, :sku) RETURNING *")
+                .param("name", product.getName())
+                .param("description", product.getDescription())
+                .param("price", product.getPrice())
+                .param("sku", product.getSku())
+                .query(PRODUCT_ROW_MAPPER)
+                .single();
+    }
+    
+    private static Product mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        return Product.builder()
+                .id(rs.getObject("id", Long.class))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .price(rs.getBigDecimal("price"))
+                .sku(rs.getString("sku"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .updatedAt(rs.getObject("updated_at", OffsetDateTime.class))
+                .categoryIds(toCategoryIds(rs))
+                .build();
+    }
+    
+    /**
+     * Helper method to read the category_ids array of a row.
+     *
+     * @param rs The result set, positioned on the row
+     * @return The category IDs, or null if the column is null
+     * @throws SQLException If the column cannot be read
+     */
+    private static List<Long> toCategoryIds(ResultSet rs) throws SQLException {
+        Array array = rs.getArray("category_ids");
+        if (array == null) {
+            return null;
+        }
+        try {
+            return Arrays.asList((Long[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package example.springframeworkbible.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method returning a Mono or Flux as read-only work.
+ * <p>
+ * When replica routing is enabled, connections requested while the returned publisher runs
+ * may be served by a read replica. Only mark methods that never write and that tolerate the
+ * replication lag; inside a transaction the connection of the transaction is used regardless.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
@@ -0,0 +1,57 @@
+package example.springframeworkbible.routing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Method interceptor marking the Mono or Flux returned by a {@link ReadOnly} method as read-only,
+ * so {@link ReplicaRoutingConnectionFactory} may serve its connections from a replica. The publishers
+ * of the other methods are marked as writes, which keeps the following reads on the primary for the
+ * read-your-writes window.
+ */
+public class ReadOnlyRoutingInterceptor implements MethodInterceptor {
+
+    private final Map<MethodClassKey, Boolean> readOnlyMethods = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (!(result instanceof Mono<?>) && !(result instanceof Flux<?>)) {
+            return result;
+        }
+        Context context = isReadOnly(invocation)
+                ? ReplicaRoutingConnectionFactory.readOnly()
+                : ReplicaRoutingConnectionFactory.write();
+        return result instanceof Mono<?> mono ? mono.contextWrite(context) : ((Flux<?>) result).contextWrite(context);
+    }
+
+    /**
+     * Helper method to check whether the invoked method, the method it implements or its class is
+     * annotated with {@link ReadOnly}.
+     *
+     * @param invocation The method invocation
+     * @return true if the method is read-only work
+     */
+    private boolean isReadOnly(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : method.getDeclaringClass();
+        return readOnlyMethods.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+            return AnnotatedElementUtils.hasAnnotation(specificMethod, ReadOnly.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, ReadOnly.class)
+                    || AnnotatedElementUtils.hasAnnotation(targetClass, ReadOnly.class);
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package example.springframeworkbible.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Connection factory that serves read-only work from read replicas and everything else from the primary.
+ * <p>
+ * Work is read-only when the Reactor {@link Context} carries the attribute set with {@link #readOnly()},
+ * which {@link ReadOnlyRoutingInterceptor} adds for {@link ReadOnly} methods. Replicas are used round-robin.
+ * A replica that fails to hand out a connection is ejected for the ejection time and the request falls
+ * back to the primary; once the ejection time has passed, the replica gets traffic again.
+ * <p>
+ * Writes are marked explicitly with {@link #write()}, which the interceptor adds for the other service
+ * methods. Within the read-your-writes window after a connection was requested for a write, read-only
+ * work also stays on the primary, so a client reading back its own write does not observe replication
+ * lag. The window is per application instance; a zero window disables it. Connections requested for
+ * unmarked work, such as the background jobs, go to the primary without opening the window.
+ * <p>
+ * Work marked with {@link #primary()} always uses the primary, even inside read-only work. It is meant
+ * for reads whose result outlives the request, like the loads of a cache, which would otherwise keep
+ * a lagging row for their whole time to live.
+ * <p>
+ * Transactions are begun on connections requested outside read-only work, so they always run on the
+ * primary. {@link #unwrap()} returns the primary, where Spring Boot finds the application pool.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>,
+        Closeable, Disposable {
+
+    /**
+     * Name of the Reactor Context attribute marking read-only work.
+     */
+    public static final String READ_ONLY_CONTEXT_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".readOnly";
+
+    /**
+     * Name of the Reactor Context attribute marking writes.
+     */
+    public static final String WRITE_CONTEXT_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".write";
+
+    /**
+     * Name of the Reactor Context attribute pinning work to the primary.
+     */
+    public static final String PRIMARY_CONTEXT_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".primary";
+
+    private final ConnectionFactory primary;
+    private final List<ConnectionFactory> replicas;
+    private final long ejectionNanos;
+    private final long readYourWritesNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLongArray ejectedUntil;
+    private final AtomicLong lastWrite;
+
+    public ReplicaRoutingConnectionFactory(
+            ConnectionFactory primary,
+            List<? extends ConnectionFactory> replicas,
+            Duration ejectionTime,
+            Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        long now = System.nanoTime();
+        this.ejectedUntil = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ejectedUntil.set(i, now);
+        }
+        this.lastWrite = new AtomicLong(now - readYourWritesNanos);
+    }
+
+    /**
+     * Creates a Reactor Context marking connections requested downstream as read-only work.
+     * Use it with {@code contextWrite(ReplicaRoutingConnectionFactory.readOnly())}.
+     *
+     * @return A Context holding the read-only attribute
+     */
+    public static Context readOnly() {
+        return Context.of(READ_ONLY_CONTEXT_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * Creates a Reactor Context marking connections requested downstream as writes, which opens the
+     * read-your-writes window. Use it with {@code contextWrite(ReplicaRoutingConnectionFactory.write())}.
+     *
+     * @return A Context holding the write attribute
+     */
+    public static Context write() {
+        return Context.of(WRITE_CONTEXT_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * Creates a Reactor Context pinning connections requested downstream to the primary, also inside
+     * read-only work. Use it with {@code contextWrite(ReplicaRoutingConnectionFactory.primary())}.
+     *
+     * @return A Context holding the primary attribute
+     */
+    public static Context primary() {
+        return Context.of(PRIMARY_CONTEXT_KEY, Boolean.TRUE);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            long now = System.nanoTime();
+            if (context.getOrDefault(WRITE_CONTEXT_KEY, false)) {
+                lastWrite.set(now);
+                return Mono.from(primary.create());
+            }
+            if (!context.getOrDefault(READ_ONLY_CONTEXT_KEY, false)
+                    || context.getOrDefault(PRIMARY_CONTEXT_KEY, false)) {
+                return Mono.from(primary.create());
+            }
+            int replica = readYourWritesNanos > 0 && now - lastWrite.get() < readYourWritesNanos
+                    ? -1
+                    : selectReplica(now);
+            if (replica < 0) {
+                return Mono.from(primary.create());
+            }
+            return Mono.<Connection>from(replicas.get(replica).create())
+                    .onErrorResume(ex -> {
+                        eject(replica, ex);
+                        return Mono.from(primary.create());
+                    });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return Flux.fromIterable(replicas)
+                .concatMap(ReplicaRoutingConnectionFactory::closeFactory)
+                .then(closeFactory(primary));
+    }
+
+    @Override
+    public void dispose() {
+        replicas.forEach(ReplicaRoutingConnectionFactory::disposeFactory);
+        disposeFactory(primary);
+    }
+
+    /**
+     * Publishes the r2dbc.pool gauges of every replica pool, tagged with the pool name {@code replica-<n>}.
+     * The gauges of the primary are published by Spring Boot.
+     *
+     * @param registry The registry to publish the gauges to
+     */
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < replicas.size(); i++) {
+            if (replicas.get(i) instanceof ConnectionPool pool) {
+                new ConnectionPoolMetrics(pool, "replica-" + i, Tags.empty()).bindTo(registry);
+            }
+        }
+    }
+
+    /**
+     * Picks the next replica that is not ejected.
+     *
+     * @param now The current nano time
+     * @return The index of the replica, or -1 if every replica is ejected
+     */
+    private int selectReplica(long now) {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (now - ejectedUntil.get(candidate) >= 0) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static Mono<Void> closeFactory(ConnectionFactory connectionFactory) {
+        return connectionFactory instanceof Closeable closeable ? Mono.from(closeable.close()) : Mono.empty();
+    }
+
+    private static void disposeFactory(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    private void eject(int replica, Throwable ex) {
+        ejectedUntil.set(replica, System.nanoTime() + ejectionNanos);
+        log.warn("Ejecting read replica {} for {} ms: {}", replica, ejectionNanos / 1_000_000, ex.toString());
+    }
+}
@@ -0,0 +1,89 @@
+package example.springframeworkbible.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, growable list of primitive int IDs used as a posting list of the search index.
+ * Not thread-safe; access is guarded by the index lock.
+ */
+class IntPostingList {
+
+    private int[] ids = new int[4];
+    private int size;
+
+    /**
+     * Adds an ID, keeping the list sorted. Adding an existing ID has no effect.
+     *
+     * @param id The ID to add
+     */
+    void add(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * Removes an ID if present.
+     *
+     * @param id The ID to remove
+     */
+    void remove(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Intersects this list with a sorted array of IDs.
+     *
+     * @param other A sorted array of IDs
+     * @param otherSize The number of valid entries in the array
+     * @return A new sorted array holding the IDs present in both
+     */
+    int[] intersect(int[] other, int otherSize) {
+        int[] result = new int[Math.min(size, otherSize)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < otherSize) {
+            if (ids[i] < other[j]) {
+                i++;
+            } else if (ids[i] > other[j]) {
+                j++;
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Copies the IDs into a new array.
+     *
+     * @return A sorted array of the IDs
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
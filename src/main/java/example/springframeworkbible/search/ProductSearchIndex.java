@@ -0,0 +1,224 @@
+package example.springframeworkbible.search;
+
+import example.springframeworkbible.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over product names.
+ * <p>
+ * Every lowercased name is split into trigrams, and each trigram keeps a sorted posting list
+ * of the product IDs containing it. A substring query intersects the posting lists of its own
+ * trigrams and then checks the remaining candidates against the stored name. Like the
+ * {@code findByNameContainingIgnoreCase} query used in the database mode, it matches the name
+ * only and ignores case; unlike LIKE, it treats {@code %} and {@code _} as plain characters.
+ * <p>
+ * The index is only maintained when app.search.product.mode is set to index. It is built
+ * from the database once the application is ready and kept up to date by the product service.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private final Map<Integer, String> documents = new HashMap<>();
+
+    // IDs written by the service while the initial build is running, the build must not overwrite them
+    private Set<Integer> touchedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(
+            ProductRepository productRepository,
+            @Value("${app.search.product.mode:database}") String mode) {
+        this.productRepository = productRepository;
+        this.enabled = "index".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Checks whether searches can be answered from the index.
+     *
+     * @return true if the index is enabled and fully built
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Builds the index from all products once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        productRepository.findAll()
+                .doOnNext(product -> {
+                    int id = Math.toIntExact(product.getId());
+                    lock.writeLock().lock();
+                    try {
+                        if (!touchedDuringBuild.contains(id)) {
+                            index(id, product.getName());
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                })
+                .count()
+                .subscribe(
+                        count -> {
+                            lock.writeLock().lock();
+                            try {
+                                touchedDuringBuild = null;
+                                ready = true;
+                            } finally {
+                                lock.writeLock().unlock();
+                            }
+                            log.info("Built product search index with {} products and {} trigrams", count, postings.size());
+                        },
+                        ex -> log.error("Failed to build product search index, searches use the database", ex));
+    }
+
+    /**
+     * Adds or replaces a product in the index.
+     *
+     * @param id The ID of the product
+     * @param name The name of the product
+     */
+    public void put(Long id, String name) {
+        if (!enabled) {
+            return;
+        }
+        int docId = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            markTouched(docId);
+            unindex(docId);
+            index(docId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param id The ID of the product
+     */
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        int docId = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            markTouched(docId);
+            unindex(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the products whose name contains the given text (case insensitive).
+     *
+     * @param text The text to search for
+     * @return The IDs of the matching products, in ascending order
+     */
+    public List<Long> search(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            int[] candidates = needle.length() < 3 ? allDocumentIds() : intersect(trigrams(needle));
+            List<Long> matches = new ArrayList<>();
+            for (int id : candidates) {
+                if (documents.get(id).contains(needle)) {
+                    matches.add((long) id);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markTouched(int docId) {
+        if (touchedDuringBuild != null) {
+            touchedDuringBuild.add(docId);
+        }
+    }
+
+    private void index(int docId, String name) {
+        String text = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        documents.put(docId, text);
+        for (long trigram : trigrams(text)) {
+            postings.computeIfAbsent(trigram, key -> new IntPostingList()).add(docId);
+        }
+    }
+
+    private void unindex(int docId) {
+        String text = documents.remove(docId);
+        if (text == null) {
+            return;
+        }
+        for (long trigram : trigrams(text)) {
+            IntPostingList list = postings.get(trigram);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private int[] intersect(Set<Long> trigrams) {
+        List<IntPostingList> lists = new ArrayList<>(trigrams.size());
+        for (long trigram : trigrams) {
+            IntPostingList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the shortest list so every step works on the smallest possible set
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).intersect(result, result.length);
+        }
+        return result;
+    }
+
+    private int[] allDocumentIds() {
+        int[] ids = documents.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -1,9 +1,15 @@
 package example.springframeworkbible.service;
 
 import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.CursorPage;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.routing.ReadOnly;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+
 /**
  * Service interface for category operations.
  * This defines the business operations that can be performed on categories.
@@ -15,14 +21,27 @@ public interface CategoryService {
      *
      * @return A Flux of all categories
      */
+    @ReadOnly
     Flux<CategoryDto> findAll();
     
+    /**
+     * Find one page of categories ordered by ID, using keyset pagination.
+     *
+     * @param afterId The ID of the last category of the previous page, or null for the first page
+     * @param limit The maximum number of categories in the page
+     * @param includeTotal Whether to include the approximate total number of categories
+     * @return A Mono containing the page
+     */
+    @ReadOnly
+    Mono<CursorPage<CategoryDto>> findPage(Long afterId, int limit, boolean includeTotal);
+    
     /**
      * Find a category by its ID.
      *
      * @param id The ID of the category to find
      * @return A Mono containing the category if found
      */
+    @ReadOnly
     Mono<CategoryDto> findById(Long id);
     
     /**
@@ -31,16 +50,58 @@ public interface CategoryService {
      * @param name The name of the category to find
      * @return A Mono containing the category if found
      */
+    @ReadOnly
     Mono<CategoryDto> findByName(String name);
     
+    /**
+     * Find the version of a category by its ID, from the category dictionary.
+     *
+     * @param id The ID of the category
+     * @return A Mono containing the version, or an empty Mono if the category is not in the dictionary
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findVersionById(Long id);
+    
+    /**
+     * Find the version of a category by its name, from the category dictionary.
+     *
+     * @param name The name of the category
+     * @return A Mono containing the version, or an empty Mono if the category is not in the dictionary
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findVersionByName(String name);
+    
+    /**
+     * Find the version of the category collection, from the latest modification and the
+     * number of categories.
+     *
+     * @return A Mono containing the version
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findCollectionVersion();
+    
     /**
      * Search for categories by name (partial match, case insensitive).
      *
      * @param name The name fragment to search for
      * @return A Flux of matching categories
      */
+    @ReadOnly
     Flux<CategoryDto> searchByName(String name);
     
+    /**
+     * Find the number of products in every category that has any, most products first.
+     * Without a scope the counts come from the in-memory counters; a search term or price
+     * range is counted with one aggregate query.
+     *
+     * @param q The text the product names must contain, or null
+     * @param minPrice The minimum product price, or null
+     * @param maxPrice The maximum product price, or null
+     * @return A Flux of the category facets
+     */
+    @ReadOnly
+    Flux<CategoryFacet> findFacets(String q, BigDecimal minPrice, BigDecimal maxPrice);
+    
     /**
      * Create a new category.
      *
@@ -58,6 +119,16 @@ public interface CategoryService {
      */
     Mono<CategoryDto> update(Long id, CategoryDto categoryDto);
     
+    /**
+     * Partially update an existing category.
+     * Only the non-null fields are validated and written; the others keep their current value.
+     *
+     * @param id The ID of the category to update
+     * @param categoryDto The fields to change
+     * @return A Mono containing the updated category
+     */
+    Mono<CategoryDto> patch(Long id, CategoryDto categoryDto);
+    
     /**
      * Delete a category by its ID.
      *
@@ -72,5 +143,6 @@ public interface CategoryService {
      * @param productId The ID of the product
      * @return A Flux of categories associated with the product
      */
+    @ReadOnly
     Flux<CategoryDto> findByProductId(Long productId);
 } 
\ No newline at end of file
@@ -1,9 +1,17 @@
 package example.springframeworkbible.service;
 
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.CursorPage;
 import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ProductQuery;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.routing.ReadOnly;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Service interface for product operations.
  * This defines the business operations that can be performed on products.
@@ -15,14 +23,27 @@ public interface ProductService {
      *
      * @return A Flux of all products
      */
+    @ReadOnly
     Flux<ProductDto> findAll();
     
+    /**
+     * Find one page of products ordered by ID, using keyset pagination.
+     *
+     * @param afterId The ID of the last product of the previous page, or null for the first page
+     * @param limit The maximum number of products in the page
+     * @param includeTotal Whether to include the approximate total number of products
+     * @return A Mono containing the page
+     */
+    @ReadOnly
+    Mono<CursorPage<ProductDto>> findPage(Long afterId, int limit, boolean includeTotal);
+    
     /**
      * Find a product by its ID.
      *
      * @param id The ID of the product to find
      * @return A Mono containing the product if found
      */
+    @ReadOnly
     Mono<ProductDto> findById(Long id);
     
     /**
@@ -31,16 +52,72 @@ public interface ProductService {
      * @param sku The SKU of the product to find
      * @return A Mono containing the product if found
      */
+    @ReadOnly
     Mono<ProductDto> findBySku(String sku);
     
+    /**
+     * Find the version of a product by its ID.
+     * The version covers the product and the categories linked to it. With the product cache
+     * enabled it is derived from the cached representation; otherwise only the timestamps are read,
+     * without loading and enriching the product.
+     *
+     * @param id The ID of the product
+     * @return A Mono containing the version, empty or an error if the product does not exist
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findVersionById(Long id);
+    
+    /**
+     * Find the version of a product by its SKU.
+     * The version covers the product and the categories linked to it. With the product cache
+     * enabled it is derived from the cached representation; otherwise only the timestamps are read,
+     * without loading and enriching the product.
+     *
+     * @param sku The SKU of the product
+     * @return A Mono containing the version, empty or an error if the product does not exist
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findVersionBySku(String sku);
+    
+    /**
+     * Find the version of the product collection, from the latest modification and the
+     * number of products and categories.
+     *
+     * @return A Mono containing the version
+     */
+    @ReadOnly
+    Mono<ResourceVersion> findCollectionVersion();
+    
     /**
      * Search for products by name (partial match, case insensitive).
      *
      * @param name The name fragment to search for
      * @return A Flux of matching products
      */
+    @ReadOnly
     Flux<ProductDto> searchByName(String name);
     
+    /**
+     * Search for products by name, SKU and description, most relevant first.
+     *
+     * @param query The search text
+     * @param limit The maximum number of products to return
+     * @return A Flux of matching products ordered by relevance
+     */
+    @ReadOnly
+    Flux<ProductDto> searchRanked(String query, int limit);
+    
+    /**
+     * Find a page of products matching a query, in the requested order.
+     * Filters and sort order are compiled into one parameterized statement, and the page
+     * continues after the sort value and ID wrapped by the cursor of the query.
+     *
+     * @param query The filters, sort order and page
+     * @return A Mono containing at most limit matching products and the cursor of the next page
+     */
+    @ReadOnly
+    Mono<CursorPage<ProductDto>> findByQuery(ProductQuery query);
+    
     /**
      * Create a new product.
      *
@@ -49,6 +126,15 @@ public interface ProductService {
      */
     Mono<ProductDto> create(ProductDto productDto);
     
+    /**
+     * Create or update many products, matched by SKU.
+     * Every product is validated individually; valid products are written in batches.
+     *
+     * @param products The products to create or update
+     * @return A Flux with the outcome of every product, in input order
+     */
+    Flux<BulkItemResult> bulkUpsert(Flux<ProductDto> products);
+    
     /**
      * Update an existing product.
      *
@@ -58,6 +144,16 @@ public interface ProductService {
      */
     Mono<ProductDto> update(Long id, ProductDto productDto);
     
+    /**
+     * Partially update an existing product.
+     * Only the non-null fields are validated and written; the others keep their current value.
+     *
+     * @param id The ID of the product to update
+     * @param productDto The fields to change
+     * @return A Mono containing the updated product
+     */
+    Mono<ProductDto> patch(Long id, ProductDto productDto);
+    
     /**
      * Delete a product by its ID.
      *
@@ -66,6 +162,15 @@ public interface ProductService {
      */
     Mono<Void> delete(Long id);
     
+    /**
+     * Delete many products by their IDs.
+     * IDs that do not exist are ignored.
+     *
+     * @param ids The IDs of the products to delete
+     * @return A Flux with the IDs of the products that were deleted
+     */
+    Flux<Long> deleteAll(Collection<Long> ids);
+    
     /**
      * Add a category to a product.
      *
@@ -83,4 +188,23 @@ public interface ProductService {
      * @return A Mono containing the updated product
      */
     Mono<ProductDto> removeCategory(Long productId, Long categoryId);
+    
+    /**
+     * Add several categories to a product at once.
+     * Categories the product already has are left untouched.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories to add
+     * @return A Mono containing the updated product
+     */
+    Mono<ProductDto> addCategories(Long productId, List<Long> categoryIds);
+    
+    /**
+     * Replace all categories of a product with the given ones.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories the product should have
+     * @return A Mono containing the updated product
+     */
+    Mono<ProductDto> replaceCategories(Long productId, List<Long> categoryIds);
 } 
\ No newline at end of file
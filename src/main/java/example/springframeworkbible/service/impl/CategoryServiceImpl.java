@@ -2,47 +2,84 @@ package example.springframeworkbible.service.impl;
 
 import example.springframeworkbible.domain.Category;
 import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.CursorPage;
+import example.springframeworkbible.dto.ResourceVersion;
 import example.springframeworkbible.exception.ResourceNotFoundException;
 import example.springframeworkbible.mapper.CategoryMapper;
 import example.springframeworkbible.repository.CategoryRepository;
 import example.springframeworkbible.service.CategoryService;
+import example.springframeworkbible.util.TransactionUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.util.Map;
+
 /**
  * Implementation of the CategoryService interface.
- * This class provides the business logic for category operations.
+ * This class provides the business logic for category operations. The statements, dictionary
+ * lookups and validation are shared with {@link JdbcCategoryServiceImpl} through
+ * {@link CategoryServiceSupport}.
  */
 @Service
+@Profile("!jdbc")
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final DatabaseClient databaseClient;
+    private final R2dbcConverter r2dbcConverter;
+    private final CategoryServiceSupport support;
     
     @Override
     public Flux<CategoryDto> findAll() {
-        return categoryRepository.findAll()
-                .map(categoryMapper::toDto);
+        return support.findAll();
+    }
+    
+    @Override
+    public Mono<CursorPage<CategoryDto>> findPage(Long afterId, int limit, boolean includeTotal) {
+        // Fetch one extra row to find out whether a next page exists
+        return categoryRepository.findPageAfter(afterId == null ? 0L : afterId, limit + 1)
+                .map(categoryMapper::toDto)
+                .collectList()
+                .flatMap(categories -> includeTotal
+                        ? categoryRepository.estimateCount()
+                                .map(total -> CursorPage.of(categories, limit, CategoryDto::getId, total))
+                        : Mono.just(CursorPage.of(categories, limit, CategoryDto::getId, null)));
     }
     
     @Override
     public Mono<CategoryDto> findById(Long id) {
-        return categoryRepository.findById(id)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)))
-                .map(categoryMapper::toDto);
+        return support.findById(id, categoryRepository.findById(id));
     }
     
     @Override
     public Mono<CategoryDto> findByName(String name) {
-        return categoryRepository.findByName(name)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "name", name)))
-                .map(categoryMapper::toDto);
+        return support.findByName(name, categoryRepository.findByName(name));
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionById(Long id) {
+        return support.findVersionById(id);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionByName(String name) {
+        return support.findVersionByName(name);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findCollectionVersion() {
+        return support.findCollectionVersion();
     }
     
     @Override
@@ -51,42 +88,73 @@ public class CategoryServiceImpl implements CategoryService {
                 .map(categoryMapper::toDto);
     }
     
+    @Override
+    public Flux<CategoryFacet> findFacets(String q, BigDecimal minPrice, BigDecimal maxPrice) {
+        return support.findFacets(q, minPrice, maxPrice, this::countScoped);
+    }
+    
     @Override
     @Transactional
     public Mono<CategoryDto> create(CategoryDto categoryDto) {
         Category category = categoryMapper.toEntity(categoryDto);
         return categoryRepository.save(category)
+                .flatMap(saved -> TransactionUtils.afterCommit(support::categoriesChanged)
+                        .thenReturn(saved))
                 .map(categoryMapper::toDto);
     }
     
     @Override
-    @Transactional
     public Mono<CategoryDto> update(Long id, CategoryDto categoryDto) {
-        return categoryRepository.findById(id)
+        return databaseClient.sql(CategoryServiceSupport.UPDATE_SQL)
+                .bind("id", id)
+                .bind("name", Parameter.fromOrEmpty(categoryDto.getName(), String.class))
+                .bind("description", Parameter.fromOrEmpty(categoryDto.getDescription(), String.class))
+                .map((row, metadata) -> r2dbcConverter.read(Category.class, row, metadata))
+                .one()
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)))
-                .map(existingCategory -> categoryMapper.updateEntityFromDto(existingCategory, categoryDto))
-                .flatMap(categoryRepository::save)
+                .flatMap(saved -> TransactionUtils.afterCommit(support::categoriesChanged)
+                        .thenReturn(saved))
                 .map(categoryMapper::toDto);
     }
     
     @Override
-    @Transactional
+    public Mono<CategoryDto> patch(Long id, CategoryDto categoryDto) {
+        return support.validatePatch(categoryDto)
+                .then(Mono.defer(() -> update(id, categoryDto)));
+    }
+    
+    @Override
     public Mono<Void> delete(Long id) {
-        return categoryRepository.findById(id)
+        return databaseClient.sql(CategoryServiceSupport.DELETE_SQL)
+                .bind("id", id)
+                .map(row -> row.get("id", Long.class))
+                .one()
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)))
-                .flatMap(category -> 
-                    // Delete all product-category relationships
-                    databaseClient.sql("DELETE FROM product_categories WHERE category_id = :categoryId")
-                            .bind("categoryId", id)
-                            .fetch()
-                            .rowsUpdated()
-                            .then(categoryRepository.delete(category))
-                );
+                .flatMap(deletedId -> TransactionUtils.afterCommit(() -> support.categoryDeleted(id)));
     }
     
     @Override
     public Flux<CategoryDto> findByProductId(Long productId) {
-        return categoryRepository.findCategoriesByProductId(productId)
-                .map(categoryMapper::toDto);
+        return support.resolve(categoryRepository.findCategoryIdsByProductId(productId).collectList());
+    }
+    
+    /**
+     * Helper method to run the scoped facet query built by {@link CategoryServiceSupport}.
+     *
+     * @param sql The SQL of the query
+     * @param parameters The named parameters of the query
+     * @return A Mono containing the counts, keyed by category ID
+     */
+    private Mono<Map<Long, Long>> countScoped(String sql, Map<String, Object> parameters) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec
+                .map((row, metadata) -> Map.entry(
+                        row.get("category_id", Long.class),
+                        row.get("products", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
     }
-} 
\ No newline at end of file
+}
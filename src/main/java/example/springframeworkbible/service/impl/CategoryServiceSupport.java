@@ -0,0 +1,239 @@
+package example.springframeworkbible.service.impl;
+
+import example.springframeworkbible.cache.CategoryDictionary;
+import example.springframeworkbible.cache.CategoryFacetCounter;
+import example.springframeworkbible.cache.ResourceChangedEvent;
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.exception.ResourceNotFoundException;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.util.ConditionalRequestUtils;
+import example.springframeworkbible.util.ValidationUtils;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Statements, lookups and validation shared by {@link CategoryServiceImpl} and {@link JdbcCategoryServiceImpl}.
+ * Only how the statements are executed differs between the two stacks; the SQL, the reads answered by
+ * the category dictionary and facet counters, the versions, patch validation and the change
+ * notifications live here once.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryServiceSupport {
+
+    // Null parameters keep the current value, so one statement serves both full and partial updates
+    static final String UPDATE_SQL =
+            "UPDATE categories SET name = COALESCE(:name, name), " +
+            "description = COALESCE(:description, description) " +
+            "WHERE id = :id RETURNING *";
+
+    // Product links are removed by ON DELETE CASCADE on product_categories
+    static final String DELETE_SQL = "DELETE FROM categories WHERE id = :id RETURNING id";
+
+    // Scoped facet counts, with the filters appended; the link IDs come from the denormalized products.category_ids
+    private static final String SCOPED_FACETS_SQL =
+            "SELECT link.category_id, COUNT(*) AS products " +
+            "FROM products p CROSS JOIN LATERAL unnest(p.category_ids) AS link(category_id) WHERE true";
+
+    private static final List<String> PATCHABLE_FIELDS = List.of("name", "description");
+
+    private final CategoryMapper categoryMapper;
+    private final CategoryDictionary categoryDictionary;
+    private final CategoryFacetCounter categoryFacetCounter;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Find all categories from the category dictionary.
+     *
+     * @return A Flux of all categories, ordered by ID
+     */
+    Flux<CategoryDto> findAll() {
+        return categoryDictionary.findAll();
+    }
+
+    /**
+     * Find a category by its ID in the category dictionary, falling back to the database for
+     * categories created after the last dictionary refresh.
+     *
+     * @param id The ID of the category
+     * @param fromDatabase The category read from the database, only subscribed to on a dictionary miss
+     * @return A Mono containing the category, or a ResourceNotFoundException
+     */
+    Mono<CategoryDto> findById(Long id, Mono<Category> fromDatabase) {
+        return categoryDictionary.findById(id)
+                .switchIfEmpty(fromDatabase.map(categoryMapper::toDto))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)));
+    }
+
+    /**
+     * Find a category by its name in the category dictionary, falling back to the database for
+     * categories created after the last dictionary refresh.
+     *
+     * @param name The name of the category
+     * @param fromDatabase The category read from the database, only subscribed to on a dictionary miss
+     * @return A Mono containing the category, or a ResourceNotFoundException
+     */
+    Mono<CategoryDto> findByName(String name, Mono<Category> fromDatabase) {
+        return categoryDictionary.findByName(name)
+                .switchIfEmpty(fromDatabase.map(categoryMapper::toDto))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "name", name)));
+    }
+
+    /**
+     * Find the version of a category by its ID. Only the dictionary is consulted; a category
+     * missing from it gets its validators from the loaded body.
+     *
+     * @param id The ID of the category
+     * @return A Mono containing the version, or an empty Mono if the category is not in the dictionary
+     */
+    Mono<ResourceVersion> findVersionById(Long id) {
+        return categoryDictionary.findById(id).map(ConditionalRequestUtils::categoryVersion);
+    }
+
+    /**
+     * Find the version of a category by its name, from the dictionary only.
+     *
+     * @param name The name of the category
+     * @return A Mono containing the version, or an empty Mono if the category is not in the dictionary
+     */
+    Mono<ResourceVersion> findVersionByName(String name) {
+        return categoryDictionary.findByName(name).map(ConditionalRequestUtils::categoryVersion);
+    }
+
+    /**
+     * Find the version of the category collection from the dictionary snapshot.
+     *
+     * @return A Mono containing the version
+     */
+    Mono<ResourceVersion> findCollectionVersion() {
+        return categoryDictionary.snapshot()
+                .map(snapshot -> ResourceVersion.of(
+                        snapshot.getAll().stream()
+                                .map(CategoryDto::getUpdatedAt)
+                                .filter(Objects::nonNull)
+                                .max(Comparator.naturalOrder())
+                                .orElse(null),
+                        snapshot.getAll().size()));
+    }
+
+    /**
+     * Counts the products of every category. Without a search term or price range the in-memory
+     * counters answer; otherwise the scoped facet query is built and handed to the caller to execute.
+     *
+     * @param q The text the product names must contain, or null
+     * @param minPrice The minimum product price, or null
+     * @param maxPrice The maximum product price, or null
+     * @param scopedCounts Executes the scoped facet query with its named parameters, returning the counts
+     *                     keyed by category ID
+     * @return A Flux of the facets, with the most products first
+     */
+    Flux<CategoryFacet> findFacets(
+            String q,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            BiFunction<String, Map<String, Object>, Mono<Map<Long, Long>>> scopedCounts) {
+        Mono<Map<Long, Long>> counts;
+        if (q == null && minPrice == null && maxPrice == null) {
+            counts = categoryFacetCounter.counts();
+        } else {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            counts = scopedCounts.apply(buildScopedFacetsSql(q, minPrice, maxPrice, parameters), parameters);
+        }
+        return counts.flatMapMany(countsByCategory -> categoryDictionary.snapshotContaining(countsByCategory.keySet())
+                .flatMapIterable(snapshot -> countsByCategory.entrySet().stream()
+                        .filter(entry -> snapshot.findById(entry.getKey()) != null)
+                        .map(entry -> CategoryFacet.builder()
+                                .categoryId(entry.getKey())
+                                .name(snapshot.findById(entry.getKey()).getName())
+                                .productCount(entry.getValue())
+                                .build())
+                        .sorted(Comparator.comparing(CategoryFacet::getProductCount).reversed()
+                                .thenComparing(CategoryFacet::getName))
+                        .toList()));
+    }
+
+    /**
+     * Resolves the category IDs of a product through the category dictionary.
+     *
+     * @param categoryIds The category IDs of the product
+     * @return A Flux of the categories, in the order of the IDs
+     */
+    Flux<CategoryDto> resolve(Mono<List<Long>> categoryIds) {
+        return categoryIds
+                .flatMap(categoryDictionary::resolve)
+                .flatMapIterable(categories -> categories);
+    }
+
+    /**
+     * Validates the fields given in a partial update of a category.
+     *
+     * @param categoryDto The fields to change
+     * @return An empty Mono, or an error if the patch is empty or a given field is invalid
+     * @see ValidationUtils#validatePatch(Validator, Object, List)
+     */
+    Mono<Void> validatePatch(CategoryDto categoryDto) {
+        return ValidationUtils.validatePatch(validator, categoryDto, PATCHABLE_FIELDS);
+    }
+
+    /**
+     * Publishes a change of the categories. Only call it once the change is committed.
+     */
+    void categoriesChanged() {
+        eventPublisher.publishEvent(ResourceChangedEvent.categories());
+    }
+
+    /**
+     * Drops the facet counter of a deleted category and publishes the change.
+     * Only call it once the deletion is committed.
+     *
+     * @param id The ID of the deleted category
+     */
+    void categoryDeleted(Long id) {
+        categoryFacetCounter.removeCategory(id);
+        eventPublisher.publishEvent(ResourceChangedEvent.categories());
+    }
+
+    /**
+     * Helper method to build the query counting the products of every category within a search term
+     * and price range.
+     *
+     * @param q The text the product names must contain, or null
+     * @param minPrice The minimum product price, or null
+     * @param maxPrice The maximum product price, or null
+     * @param parameters Receives the named parameters of the query
+     * @return The SQL of the query
+     */
+    private static String buildScopedFacetsSql(
+            String q, BigDecimal minPrice, BigDecimal maxPrice, Map<String, Object> parameters) {
+        StringBuilder sql = new StringBuilder(SCOPED_FACETS_SQL);
+        if (q != null) {
+            sql.append(" AND LOWER(p.name) LIKE '%' || LOWER(:q) || '%'");
+            parameters.put("q", q);
+        }
+        if (minPrice != null) {
+            sql.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", maxPrice);
+        }
+        return sql.append(" GROUP BY link.category_id").toString();
+    }
+}
@@ -0,0 +1,169 @@
+package example.springframeworkbible.service.impl;
+
+import example.springframeworkbible.domain.Category;
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.CategoryFacet;
+import example.springframeworkbible.dto.CursorPage;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.exception.ResourceNotFoundException;
+import example.springframeworkbible.mapper.CategoryMapper;
+import example.springframeworkbible.repository.jdbc.JdbcCategoryRepository;
+import example.springframeworkbible.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the CategoryService interface on blocking JDBC, active with the {@code jdbc} profile.
+ * Every statement runs on the virtual thread scheduler; the statements, dictionary lookups and validation
+ * are those of {@link CategoryServiceImpl}, shared through {@link CategoryServiceSupport}. Reads answered
+ * by the in-memory category dictionary and facet counters do not touch the database.
+ */
+@Service
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JdbcCategoryServiceImpl implements CategoryService {
+    
+    private final JdbcCategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final JdbcClient jdbcClient;
+    private final Scheduler jdbcScheduler;
+    private final CategoryServiceSupport support;
+    
+    @Override
+    public Flux<CategoryDto> findAll() {
+        return support.findAll();
+    }
+    
+    @Override
+    public Mono<CursorPage<CategoryDto>> findPage(Long afterId, int limit, boolean includeTotal) {
+        // Fetch one extra row to find out whether a next page exists
+        return blocking(() -> categoryRepository.findPageAfter(afterId == null ? 0L : afterId, limit + 1))
+                .map(categories -> categories.stream().map(categoryMapper::toDto).toList())
+                .flatMap(categories -> includeTotal
+                        ? blocking(categoryRepository::estimateCount)
+                                .map(total -> CursorPage.of(categories, limit, CategoryDto::getId, total))
+                        : Mono.just(CursorPage.of(categories, limit, CategoryDto::getId, null)));
+    }
+    
+    @Override
+    public Mono<CategoryDto> findById(Long id) {
+        return support.findById(id, blocking(() -> categoryRepository.findById(id).orElse(null)));
+    }
+    
+    @Override
+    public Mono<CategoryDto> findByName(String name) {
+        return support.findByName(name, blocking(() -> categoryRepository.findByName(name).orElse(null)));
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionById(Long id) {
+        return support.findVersionById(id);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionByName(String name) {
+        return support.findVersionByName(name);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findCollectionVersion() {
+        return support.findCollectionVersion();
+    }
+    
+    @Override
+    public Flux<CategoryDto> searchByName(String name) {
+        return blocking(() -> categoryRepository.findByNameContainingIgnoreCase(name))
+                .flatMapIterable(categories -> categories)
+                .map(categoryMapper::toDto);
+    }
+    
+    @Override
+    public Flux<CategoryFacet> findFacets(String q, BigDecimal minPrice, BigDecimal maxPrice) {
+        return support.findFacets(q, minPrice, maxPrice,
+                (sql, parameters) -> blocking(() -> countScoped(sql, parameters)));
+    }
+    
+    @Override
+    public Mono<CategoryDto> create(CategoryDto categoryDto) {
+        Category category = categoryMapper.toEntity(categoryDto);
+        return blocking(() -> categoryRepository.insert(category))
+                .doOnNext(saved -> support.categoriesChanged())
+                .map(categoryMapper::toDto);
+    }
+    
+    @Override
+    public Mono<CategoryDto> update(Long id, CategoryDto categoryDto) {
+        return blocking(() -> jdbcClient.sql(CategoryServiceSupport.UPDATE_SQL)
+                        .param("id", id)
+                        .param("name", categoryDto.getName(), Types.VARCHAR)
+                        .param("description", categoryDto.getDescription(), Types.VARCHAR)
+                        .query(JdbcCategoryRepository.CATEGORY_ROW_MAPPER)
+                        .optional()
+                        .orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)))
+                .doOnNext(saved -> support.categoriesChanged())
+                .map(categoryMapper::toDto);
+    }
+    
+    @Override
+    public Mono<CategoryDto> patch(Long id, CategoryDto categoryDto) {
+        return support.validatePatch(categoryDto)
+                .then(Mono.defer(() -> update(id, categoryDto)));
+    }
+    
+    @Override
+    public Mono<Void> delete(Long id) {
+        return blocking(() -> jdbcClient.sql(CategoryServiceSupport.DELETE_SQL)
+                        .param("id", id)
+                        .query(Long.class)
+                        .optional()
+                        .orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", id)))
+                .doOnNext(deletedId -> support.categoryDeleted(id))
+                .then();
+    }
+    
+    @Override
+    public Flux<CategoryDto> findByProductId(Long productId) {
+        return support.resolve(blocking(() -> categoryRepository.findCategoryIdsByProductId(productId)));
+    }
+    
+    /**
+     * Helper method to run a blocking call on the virtual thread scheduler.
+     *
+     * @param call The blocking call; a null result completes the Mono empty
+     * @return A Mono emitting the result of the call
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(jdbcScheduler);
+    }
+    
+    /**
+     * Helper method to run the scoped facet query built by {@link CategoryServiceSupport}.
+     * Blocks until the aggregate query completes.
+     *
+     * @param sql The SQL of the query
+     * @param parameters The named parameters of the query
+     * @return The counts, keyed by category ID
+     */
+    private Map<Long, Long> countScoped(String sql, Map<String, Object> parameters) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcClient.sql(sql)
+                .params(parameters)
+                .query(rs -> {
+                    counts.put(rs.getLong("category_id"), rs.getLong("products"));
+                });
+        return counts;
+    }
+}
@@ -0,0 +1,475 @@
+package example.springframeworkbible.service.impl;
+
+import example.springframeworkbible.cache.CategoryFacetCounter;
+import example.springframeworkbible.cache.ProductCache;
+import example.springframeworkbible.cache.ResourceChangedEvent;
+import example.springframeworkbible.domain.Product;
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.CursorPage;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ProductQuery;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.exception.ResourceNotFoundException;
+import example.springframeworkbible.mapper.ProductMapper;
+import example.springframeworkbible.repository.jdbc.JdbcCategoryRepository;
+import example.springframeworkbible.repository.jdbc.JdbcProductRepository;
+import example.springframeworkbible.search.ProductSearchIndex;
+import example.springframeworkbible.service.ProductService;
+import example.springframeworkbible.util.ConditionalRequestUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.core.support.SqlArrayValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Implementation of the ProductService interface on blocking JDBC, active with the {@code jdbc} profile.
+ * Every statement runs on the virtual thread scheduler, so both stacks can be benchmarked side by side
+ * on the same endpoints. The statements are those of {@link ProductServiceImpl}, except for the bulk
+ * upsert: JDBC sends each batch as arrays to one {@code INSERT ... SELECT FROM unnest} statement and
+ * writes a SKU repeated within a batch once, while R2DBC binds one row per product to the same
+ * {@code INSERT ... VALUES} statement with {@code Statement.add()}. Mapping and validation are shared
+ * through {@link ProductServiceSupport}.
+ */
+@Service
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JdbcProductServiceImpl implements ProductService {
+    
+    // The products of a batch are sent as arrays and unnested into rows, so one statement writes the whole
+    // batch. RETURNING does not guarantee the input order, so the rows are matched back by SKU
+    private static final String UPSERT_ALL_BY_SKU_SQL =
+            "INSERT INTO products (name, description, price, sku) " +
+            "SELECT * FROM unnest(:names, :descriptions, :prices, :skus) " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, " +
+            "description = EXCLUDED.description, price = EXCLUDED.price " +
+            "RETURNING id, sku, (xmax = 0) AS inserted";
+    
+    private final JdbcProductRepository productRepository;
+    private final JdbcCategoryRepository categoryRepository;
+    private final ProductMapper productMapper;
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate jdbcTransactionTemplate;
+    private final Scheduler jdbcScheduler;
+    private final ProductCache productCache;
+    private final CategoryFacetCounter categoryFacetCounter;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductServiceSupport support;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.product.enrichment-batch-size:500}")
+    private int enrichmentBatchSize;
+    
+    @Value("${app.product.bulk-batch-size:1000}")
+    private int bulkBatchSize;
+    
+    @Override
+    public Flux<ProductDto> findAll() {
+        return support.enrichAll(blockingMany(productRepository::findAll));
+    }
+    
+    @Override
+    public Mono<CursorPage<ProductDto>> findPage(Long afterId, int limit, boolean includeTotal) {
+        // Fetch one extra row to find out whether a next page exists
+        return support.enrichAll(blockingMany(() -> productRepository.findPageAfter(
+                        afterId == null ? 0L : afterId, limit + 1)))
+                .collectList()
+                .flatMap(products -> includeTotal
+                        ? blocking(productRepository::estimateCount)
+                                .map(total -> CursorPage.of(products, limit, ProductDto::getId, total))
+                        : Mono.just(CursorPage.of(products, limit, ProductDto::getId, null)));
+    }
+    
+    @Override
+    public Mono<ProductDto> findById(Long id) {
+        return productCache.getById(id, () -> blocking(() -> productRepository.findById(id).orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
+                .flatMap(support::enrich));
+    }
+    
+    @Override
+    public Mono<ProductDto> findBySku(String sku) {
+        return productCache.getBySku(sku, () -> blocking(() -> productRepository.findBySku(sku).orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "sku", sku)))
+                .flatMap(support::enrich));
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionById(Long id) {
+        // A cached product is its own version, and a miss caches the product for the body that follows
+        if (productCache.isEnabled()) {
+            return findById(id).map(ConditionalRequestUtils::productVersion);
+        }
+        return findVersion(ProductServiceImpl.VERSION_BY_ID_SQL, "id", id);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionBySku(String sku) {
+        if (productCache.isEnabled()) {
+            return findBySku(sku).map(ConditionalRequestUtils::productVersion);
+        }
+        return findVersion(ProductServiceImpl.VERSION_BY_SKU_SQL, "sku", sku);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findCollectionVersion() {
+        return blocking(() -> jdbcClient.sql(ProductServiceImpl.COLLECTION_VERSION_SQL)
+                .query((rs, rowNum) -> {
+                    OffsetDateTime productsModified = rs.getObject("products_modified", OffsetDateTime.class);
+                    OffsetDateTime categoriesModified = rs.getObject("categories_modified", OffsetDateTime.class);
+                    OffsetDateTime modified = productsModified == null || (categoriesModified != null
+                            && categoriesModified.isAfter(productsModified)) ? categoriesModified : productsModified;
+                    return ResourceVersion.of(
+                            modified == null ? null : modified.toInstant(),
+                            rs.getLong("products_count"),
+                            rs.getLong("categories_count"));
+                })
+                .single());
+    }
+    
+    @Override
+    public Flux<ProductDto> searchByName(String name) {
+        if (!productSearchIndex.isReady()) {
+            return support.enrichAll(
+                    blockingMany(() -> productRepository.findByNameContainingIgnoreCase(name)));
+        }
+        // Answer from the in-memory index and only fetch the matched rows
+        return support.enrichAll(Flux.defer(() -> Flux.fromIterable(productSearchIndex.search(name)))
+                .buffer(enrichmentBatchSize)
+                .concatMap(ids -> blockingMany(() -> productRepository.findAllById(ids))));
+    }
+    
+    @Override
+    public Flux<ProductDto> searchRanked(String query, int limit) {
+        return support.enrichAll(blockingMany(() -> productRepository.searchRanked(query, limit)));
+    }
+    
+    @Override
+    public Mono<CursorPage<ProductDto>> findByQuery(ProductQuery query) {
+        return support.enrichAll(blockingMany(() -> {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            String sql = ProductServiceImpl.buildQuerySql(query, parameters,
+                    ids -> new SqlArrayValue("bigint", ids.toArray()));
+            return jdbcClient.sql(sql)
+                    .params(parameters)
+                    .query(JdbcProductRepository.PRODUCT_ROW_MAPPER)
+                    .list();
+        }))
+                .collectList()
+                .map(products -> CursorPage.of(products, query.getLimit(), ProductServiceImpl.queryCursorEncoder(query)));
+    }
+    
+    @Override
+    public Mono<ProductDto> create(ProductDto productDto) {
+        Product product = productMapper.toEntity(productDto);
+        return blocking(() -> productRepository.insert(product))
+                .doOnNext(saved -> {
+                    productSearchIndex.put(saved.getId(), saved.getName());
+                    eventPublisher.publishEvent(ResourceChangedEvent.products());
+                })
+                .flatMap(support::enrich);
+    }
+    
+    @Override
+    public Flux<BulkItemResult> bulkUpsert(Flux<ProductDto> products) {
+        return products
+                .index()
+                .buffer(bulkBatchSize)
+                .concatMap(this::upsertBatch);
+    }
+    
+    @Override
+    public Mono<ProductDto> update(Long id, ProductDto productDto) {
+        return blocking(() -> jdbcClient.sql(ProductServiceImpl.UPDATE_SQL)
+                        .param("id", id)
+                        .param("name", productDto.getName(), Types.VARCHAR)
+                        .param("description", productDto.getDescription(), Types.VARCHAR)
+                        .param("price", productDto.getPrice(), Types.NUMERIC)
+                        .param("sku", productDto.getSku(), Types.VARCHAR)
+                        .query(JdbcProductRepository.PRODUCT_ROW_MAPPER)
+                        .optional()
+                        .orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
+                .doOnNext(product -> {
+                    invalidate(id);
+                    productSearchIndex.put(id, product.getName());
+                })
+                .flatMap(support::enrich);
+    }
+    
+    @Override
+    public Mono<ProductDto> patch(Long id, ProductDto productDto) {
+        return support.validatePatch(productDto).then(Mono.defer(() -> update(id, productDto)));
+    }
+    
+    @Override
+    public Mono<Void> delete(Long id) {
+        return blocking(() -> jdbcClient.sql(ProductServiceImpl.DELETE_SQL)
+                        .param("id", id)
+                        .query((rs, rowNum) -> (Long[]) rs.getArray("category_ids").getArray())
+                        .optional()
+                        .orElse(null))
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
+                .doOnNext(deletedCategoryIds -> {
+                    invalidate(id);
+                    productSearchIndex.remove(id);
+                    categoryFacetCounter.removeProduct(Arrays.asList(deletedCategoryIds));
+                })
+                .then();
+    }
+    
+    @Override
+    public Flux<Long> deleteAll(Collection<Long> ids) {
+        // Bounded batches keep each statement, and the connection it holds, short
+        return Flux.fromIterable(new HashSet<>(ids))
+                .buffer(bulkBatchSize)
+                .concatMap(batch -> blocking(() -> jdbcClient.sql(ProductServiceImpl.DELETE_ALL_SQL)
+                                .param("ids", new SqlArrayValue("bigint", batch.toArray()))
+                                .query((rs, rowNum) -> Map.entry(
+                                        rs.getLong("id"),
+                                        (Long[]) rs.getArray("category_ids").getArray()))
+                                .list())
+                        .doOnNext(deleted -> {
+                            deleted.forEach(entry -> {
+                                productCache.invalidate(entry.getKey());
+                                productSearchIndex.remove(entry.getKey());
+                                categoryFacetCounter.removeProduct(Arrays.asList(entry.getValue()));
+                            });
+                            if (!deleted.isEmpty()) {
+                                eventPublisher.publishEvent(ResourceChangedEvent.products());
+                            }
+                        })
+                        .flatMapIterable(deleted -> deleted.stream().map(Map.Entry::getKey).toList()));
+    }
+    
+    @Override
+    public Mono<ProductDto> addCategory(Long productId, Long categoryId) {
+        return changeCategoryLink(productId, categoryId, ProductServiceImpl.ADD_CATEGORY_SQL, 1);
+    }
+    
+    @Override
+    public Mono<ProductDto> removeCategory(Long productId, Long categoryId) {
+        return changeCategoryLink(productId, categoryId, ProductServiceImpl.REMOVE_CATEGORY_SQL, -1);
+    }
+    
+    @Override
+    public Mono<ProductDto> addCategories(Long productId, List<Long> categoryIds) {
+        return assignCategories(productId, categoryIds, ProductServiceImpl.INSERT_CATEGORIES_SQL);
+    }
+    
+    @Override
+    public Mono<ProductDto> replaceCategories(Long productId, List<Long> categoryIds) {
+        return assignCategories(productId, categoryIds, ProductServiceImpl.REPLACE_CATEGORIES_SQL);
+    }
+    
+    /**
+     * Helper method to run a blocking call on the virtual thread scheduler.
+     *
+     * @param call The blocking call; a null result completes the Mono empty
+     * @return A Mono emitting the result of the call
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(jdbcScheduler);
+    }
+    
+    /**
+     * Helper method to read the version of one product with a version query.
+     *
+     * @param sql The version query
+     * @param name The name of the filter parameter
+     * @param value The value of the filter parameter
+     * @return A Mono containing the version, or an empty Mono if the product does not exist
+     */
+    private Mono<ResourceVersion> findVersion(String sql, String name, Object value) {
+        return blocking(() -> jdbcClient.sql(sql)
+                .param(name, value)
+                .query((rs, rowNum) -> ResourceVersion.of(
+                        rs.getObject("modified", OffsetDateTime.class),
+                        rs.getLong("id")))
+                .optional()
+                .orElse(null));
+    }
+    
+    /**
+     * Helper method to run a blocking call returning a list on the virtual thread scheduler.
+     *
+     * @param call The blocking call
+     * @return A Flux emitting the elements of the list
+     */
+    private <T> Flux<T> blockingMany(Callable<List<T>> call) {
+        return blocking(call).flatMapIterable(list -> list);
+    }
+    
+    /**
+     * Helper method to add or remove one category of a product with a single statement.
+     * The statement checks that both exist, writes the link and returns the product with
+     * its category IDs, so the categories are resolved from the dictionary without another query.
+     *
+     * @param productId The product ID
+     * @param categoryId The category ID
+     * @param sql The statement writing the product_categories row
+     * @param delta The change of the category's product count when the link was written
+     * @return The enriched product
+     */
+    private Mono<ProductDto> changeCategoryLink(Long productId, Long categoryId, String sql, long delta) {
+        return blocking(() -> jdbcClient.sql(sql)
+                        .param("productId", productId)
+                        .param("categoryId", categoryId)
+                        .query((rs, rowNum) -> new CategoryLinkResult(
+                                rs.getObject("id") == null
+                                        ? null
+                                        : JdbcProductRepository.PRODUCT_ROW_MAPPER.mapRow(rs, rowNum),
+                                rs.getBoolean("category_exists"),
+                                rs.getBoolean("changed")))
+                        .single())
+                .flatMap(result -> {
+                    if (result.product() == null) {
+                        return Mono.error(ResourceNotFoundException.create("Product", "id", productId));
+                    }
+                    if (!result.categoryExists()) {
+                        return Mono.error(ResourceNotFoundException.create("Category", "id", categoryId));
+                    }
+                    invalidate(productId);
+                    if (result.changed()) {
+                        categoryFacetCounter.add(categoryId, delta);
+                    }
+                    return support.enrich(result.product());
+                });
+    }
+    
+    /**
+     * Row returned by the category link statements.
+     *
+     * @param product The product with its category IDs after the change, or null if it does not exist
+     * @param categoryExists Whether the category exists
+     * @param changed Whether the link was inserted or deleted
+     */
+    private record CategoryLinkResult(Product product, boolean categoryExists, boolean changed) {
+    }
+    
+    /**
+     * Helper method to assign a set of categories to a product in one JDBC transaction.
+     * All category IDs are validated with one query and written with one statement.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories to assign
+     * @param sql The statement writing the product_categories rows
+     * @return The enriched product
+     */
+    private Mono<ProductDto> assignCategories(Long productId, List<Long> categoryIds, String sql) {
+        List<Long> ids = categoryIds.stream()
+                .distinct()
+                .toList();
+        
+        return blocking(() -> jdbcTransactionTemplate.execute(status -> {
+                    Product product = productRepository.findById(productId)
+                            .orElseThrow(() -> ResourceNotFoundException.create("Product", "id", productId));
+                    Set<Long> existingIds = new HashSet<>(categoryRepository.findExistingIds(ids));
+                    for (Long id : ids) {
+                        if (!existingIds.contains(id)) {
+                            throw ResourceNotFoundException.create("Category", "id", id);
+                        }
+                    }
+                    jdbcClient.sql(sql)
+                            .param("productId", productId)
+                            .param("categoryIds", new SqlArrayValue("bigint", ids.toArray()))
+                            .update();
+                    // Re-read the product for the category IDs written by the trigger
+                    Product updated = productRepository.findById(productId).orElseThrow();
+                    return Map.entry(product, updated);
+                }))
+                // The template has committed once it returns, so the counters and caches see the new links
+                .doOnNext(change -> {
+                    support.countLinkChanges(
+                            ProductServiceSupport.categoryIdsOf(change.getKey()),
+                            ProductServiceSupport.categoryIdsOf(change.getValue()));
+                    invalidate(productId);
+                })
+                .flatMap(change -> support.enrich(change.getValue()));
+    }
+    
+    /**
+     * Helper method to drop a changed product from the caches.
+     *
+     * @param id The ID of the changed product
+     */
+    private void invalidate(Long id) {
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ResourceChangedEvent.products());
+    }
+    
+    /**
+     * Helper method to validate and upsert one batch of a bulk request.
+     * All valid products of the batch are written with one INSERT ... SELECT FROM unnest statement.
+     * ON CONFLICT cannot update the same row twice in one statement, so a SKU repeated within the
+     * batch is written once, with its last values; {@link ProductServiceImpl} writes every occurrence.
+     *
+     * @param batch The products of the batch with their index in the request
+     * @return The outcome of every product of the batch, in request order
+     */
+    private Flux<BulkItemResult> upsertBatch(List<Tuple2<Long, ProductDto>> batch) {
+        List<Tuple2<Long, ProductDto>> valid = new ArrayList<>(batch.size());
+        List<BulkItemResult> invalid = support.validateBatch(batch, valid);
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(invalid);
+        }
+        
+        // ON CONFLICT cannot update the same row twice in one statement
+        Map<String, ProductDto> bySku = new LinkedHashMap<>();
+        valid.forEach(item -> bySku.put(item.getT2().getSku(), item.getT2()));
+        List<ProductDto> rows = List.copyOf(bySku.values());
+        
+        Mono<List<BulkItemResult>> written = blocking(() -> jdbcClient.sql(UPSERT_ALL_BY_SKU_SQL)
+                        .param("names", new SqlArrayValue("text",
+                                rows.stream().map(ProductDto::getName).toArray()))
+                        .param("descriptions", new SqlArrayValue("text",
+                                rows.stream().map(ProductDto::getDescription).toArray()))
+                        .param("prices", new SqlArrayValue("numeric",
+                                rows.stream().map(ProductDto::getPrice).toArray()))
+                        .param("skus", new SqlArrayValue("text",
+                                rows.stream().map(ProductDto::getSku).toArray()))
+                        .query((rs, rowNum) -> Map.entry(
+                                rs.getString("sku"),
+                                Map.entry(rs.getLong("id"), rs.getBoolean("inserted"))))
+                        .list())
+                .map(returned -> {
+                    Map<String, Map.Entry<Long, Boolean>> writtenBySku = new HashMap<>();
+                    returned.forEach(entry -> writtenBySku.put(entry.getKey(), entry.getValue()));
+                    Set<String> reported = new HashSet<>();
+                    List<BulkItemResult> results = new ArrayList<>(batch.size());
+                    for (Tuple2<Long, ProductDto> item : valid) {
+                        ProductDto product = item.getT2();
+                        Map.Entry<Long, Boolean> row = writtenBySku.get(product.getSku());
+                        // The statement is auto-committed, so the write is already visible here
+                        productCache.invalidate(row.getKey());
+                        productSearchIndex.put(row.getKey(), product.getName());
+                        // Later occurrences of a repeated SKU update the product created by the first one
+                        boolean created = row.getValue() && reported.add(product.getSku());
+                        results.add(ProductServiceSupport.writtenResult(item, row.getKey(), created));
+                    }
+                    eventPublisher.publishEvent(ResourceChangedEvent.products());
+                    return results;
+                });
+        return ProductServiceSupport.batchResults(written, valid, invalid);
+    }
+}
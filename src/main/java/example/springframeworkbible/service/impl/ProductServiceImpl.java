@@ -1,65 +1,257 @@
 package example.springframeworkbible.service.impl;
 
+import example.springframeworkbible.cache.CategoryFacetCounter;
+import example.springframeworkbible.cache.ProductCache;
+import example.springframeworkbible.cache.ResourceChangedEvent;
 import example.springframeworkbible.domain.Product;
-import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.CursorPage;
 import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ProductQuery;
+import example.springframeworkbible.dto.ResourceVersion;
+import example.springframeworkbible.exception.BadRequestException;
 import example.springframeworkbible.exception.ResourceNotFoundException;
-import example.springframeworkbible.mapper.CategoryMapper;
 import example.springframeworkbible.mapper.ProductMapper;
 import example.springframeworkbible.repository.CategoryRepository;
 import example.springframeworkbible.repository.ProductRepository;
+import example.springframeworkbible.search.ProductSearchIndex;
 import example.springframeworkbible.service.ProductService;
-import example.springframeworkbible.util.SchemaUtils;
+import example.springframeworkbible.util.ConditionalRequestUtils;
+import example.springframeworkbible.util.CursorUtils;
+import example.springframeworkbible.util.TransactionUtils;
+import io.r2dbc.spi.Statement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the ProductService interface.
  * This class provides the business logic for product operations.
  */
 @Service
+@Profile("!jdbc")
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
     
+    private static final String UPSERT_BY_SKU_SQL =
+            "INSERT INTO products (name, description, price, sku) VALUES ($1, $2, $3, $4) " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, " +
+            "description = EXCLUDED.description, price = EXCLUDED.price " +
+            "RETURNING id, (xmax = 0) AS inserted";
+    
+    static final String INSERT_CATEGORIES_SQL =
+            "INSERT INTO product_categories (product_id, category_id) " +
+            "SELECT :productId, category_id FROM unnest(:categoryIds) AS category_id " +
+            "ON CONFLICT DO NOTHING";
+    
+    static final String REPLACE_CATEGORIES_SQL =
+            "WITH removed AS (" +
+            "DELETE FROM product_categories " +
+            "WHERE product_id = :productId AND category_id <> ALL(:categoryIds)) " +
+            INSERT_CATEGORIES_SQL;
+    
+    static final String COLLECTION_VERSION_SQL =
+            "SELECT (SELECT MAX(updated_at) FROM products) AS products_modified, " +
+            "(SELECT COUNT(*) FROM products) AS products_count, " +
+            "(SELECT MAX(updated_at) FROM categories) AS categories_modified, " +
+            "(SELECT COUNT(*) FROM categories) AS categories_count";
+    
+    // The version of one product without loading and enriching it: the latest modification of the
+    // product and of its linked categories, with the filter appended
+    static final String VERSION_SQL =
+            "SELECT p.id, GREATEST(p.updated_at, " +
+            "(SELECT MAX(c.updated_at) FROM categories c WHERE c.id = ANY(p.category_ids))) AS modified " +
+            "FROM products p WHERE ";
+    
+    static final String VERSION_BY_ID_SQL = VERSION_SQL + "p.id = :id";
+    
+    static final String VERSION_BY_SKU_SQL = VERSION_SQL + "p.sku = :sku";
+    
+    // Null parameters keep the current value, so one statement serves both full and partial updates
+    static final String UPDATE_SQL =
+            "UPDATE products SET name = COALESCE(:name, name), " +
+            "description = COALESCE(:description, description), " +
+            "price = COALESCE(:price, price), " +
+            "sku = COALESCE(:sku, sku) " +
+            "WHERE id = :id RETURNING *";
+    
+    // Category links are removed by ON DELETE CASCADE on product_categories
+    static final String DELETE_SQL = "DELETE FROM products WHERE id = :id RETURNING id, category_ids";
+    
+    static final String DELETE_ALL_SQL =
+            "DELETE FROM products WHERE id = ANY(:ids) RETURNING id, category_ids";
+    
+    // Both statements always return one row: a null id means the product does not exist.
+    // The final SELECT does not see the rows written by the CTE, so the written link is merged in,
+    // and updated_at reflects the touch made by the product_categories trigger.
+    static final String ADD_CATEGORY_SQL =
+            "WITH product AS (SELECT * FROM products WHERE id = :productId), " +
+            "category AS (SELECT id FROM categories WHERE id = :categoryId), " +
+            "inserted AS (" +
+            "INSERT INTO product_categories (product_id, category_id) " +
+            "SELECT product.id, category.id FROM product, category " +
+            "ON CONFLICT DO NOTHING RETURNING category_id) " +
+            "SELECT p.id, p.name, p.description, p.price, p.sku, p.created_at, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM inserted) THEN CURRENT_TIMESTAMP ELSE p.updated_at END AS updated_at, " +
+            "EXISTS (SELECT 1 FROM category) AS category_exists, " +
+            "EXISTS (SELECT 1 FROM inserted) AS changed, " +
+            "ARRAY(SELECT pc.category_id FROM product_categories pc WHERE pc.product_id = p.id " +
+            "UNION SELECT category_id FROM inserted ORDER BY 1)::bigint[] AS category_ids " +
+            "FROM (SELECT 1) AS one LEFT JOIN product p ON true";
+    
+    static final String REMOVE_CATEGORY_SQL =
+            "WITH product AS (SELECT * FROM products WHERE id = :productId), " +
+            "category AS (SELECT id FROM categories WHERE id = :categoryId), " +
+            "deleted AS (" +
+            "DELETE FROM product_categories pc USING product, category " +
+            "WHERE pc.product_id = product.id AND pc.category_id = category.id RETURNING pc.category_id) " +
+            "SELECT p.id, p.name, p.description, p.price, p.sku, p.created_at, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM deleted) THEN CURRENT_TIMESTAMP ELSE p.updated_at END AS updated_at, " +
+            "EXISTS (SELECT 1 FROM category) AS category_exists, " +
+            "EXISTS (SELECT 1 FROM deleted) AS changed, " +
+            "ARRAY(SELECT pc.category_id FROM product_categories pc WHERE pc.product_id = p.id " +
+            "EXCEPT SELECT category_id FROM deleted ORDER BY 1)::bigint[] AS category_ids " +
+            "FROM (SELECT 1) AS one LEFT JOIN product p ON true";
+    
+    // Sort fields of the product query and their columns, each backed by a (column, id) index
+    static final Map<String, String> QUERY_SORT_COLUMNS = Map.of(
+            "price", "price",
+            "name", "name",
+            "updatedAt", "updated_at");
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
-    private final CategoryMapper categoryMapper;
     private final DatabaseClient databaseClient;
-    private final SchemaUtils schemaUtils;
+    private final R2dbcConverter r2dbcConverter;
+    private final ProductCache productCache;
+    private final CategoryFacetCounter categoryFacetCounter;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductServiceSupport support;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.product.enrichment-batch-size:500}")
+    private int enrichmentBatchSize;
+    
+    @Value("${app.product.bulk-batch-size:1000}")
+    private int bulkBatchSize;
     
     @Override
     public Flux<ProductDto> findAll() {
-        return productRepository.findAll()
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+        return support.enrichAll(productRepository.findAll());
+    }
+    
+    @Override
+    public Mono<CursorPage<ProductDto>> findPage(Long afterId, int limit, boolean includeTotal) {
+        // Fetch one extra row to find out whether a next page exists
+        return support.enrichAll(productRepository.findPageAfter(afterId == null ? 0L : afterId, limit + 1))
+                .collectList()
+                .flatMap(products -> includeTotal
+                        ? productRepository.estimateCount()
+                                .map(total -> CursorPage.of(products, limit, ProductDto::getId, total))
+                        : Mono.just(CursorPage.of(products, limit, ProductDto::getId, null)));
     }
     
     @Override
     public Mono<ProductDto> findById(Long id) {
-        return productRepository.findById(id)
+        return productCache.getById(id, () -> productRepository.findById(id)
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+                .flatMap(support::enrich));
     }
     
     @Override
     public Mono<ProductDto> findBySku(String sku) {
-        return productRepository.findBySku(sku)
+        return productCache.getBySku(sku, () -> productRepository.findBySku(sku)
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "sku", sku)))
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+                .flatMap(support::enrich));
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionById(Long id) {
+        // A cached product is its own version, and a miss caches the product for the body that follows
+        if (productCache.isEnabled()) {
+            return findById(id).map(ConditionalRequestUtils::productVersion);
+        }
+        return findVersion(VERSION_BY_ID_SQL, "id", id);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findVersionBySku(String sku) {
+        if (productCache.isEnabled()) {
+            return findBySku(sku).map(ConditionalRequestUtils::productVersion);
+        }
+        return findVersion(VERSION_BY_SKU_SQL, "sku", sku);
+    }
+    
+    @Override
+    public Mono<ResourceVersion> findCollectionVersion() {
+        return databaseClient.sql(COLLECTION_VERSION_SQL)
+                .map((row, metadata) -> {
+                    OffsetDateTime productsModified = row.get("products_modified", OffsetDateTime.class);
+                    OffsetDateTime categoriesModified = row.get("categories_modified", OffsetDateTime.class);
+                    OffsetDateTime modified = productsModified == null || (categoriesModified != null
+                            && categoriesModified.isAfter(productsModified)) ? categoriesModified : productsModified;
+                    return ResourceVersion.of(
+                            modified == null ? null : modified.toInstant(),
+                            row.get("products_count", Long.class),
+                            row.get("categories_count", Long.class));
+                })
+                .one();
     }
     
     @Override
     public Flux<ProductDto> searchByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name)
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+        if (!productSearchIndex.isReady()) {
+            return support.enrichAll(productRepository.findByNameContainingIgnoreCase(name));
+        }
+        // Answer from the in-memory index and only fetch the matched rows
+        return support.enrichAll(Flux.defer(() -> Flux.fromIterable(productSearchIndex.search(name)))
+                .buffer(enrichmentBatchSize)
+                .concatMap(productRepository::findAllById));
+    }
+    
+    @Override
+    public Flux<ProductDto> searchRanked(String query, int limit) {
+        return support.enrichAll(productRepository.searchRanked(query, limit));
+    }
+    
+    @Override
+    public Mono<CursorPage<ProductDto>> findByQuery(ProductQuery query) {
+        return Flux.defer(() -> {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                    buildQuerySql(query, parameters, ids -> ids.toArray(new Long[0])));
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                spec = spec.bind(parameter.getKey(), parameter.getValue());
+            }
+            return support.enrichAll(spec
+                    .map((row, metadata) -> r2dbcConverter.read(Product.class, row, metadata))
+                    .all());
+        })
+                .collectList()
+                .map(products -> CursorPage.of(products, query.getLimit(), queryCursorEncoder(query)));
     }
     
     @Override
@@ -67,103 +259,384 @@ public class ProductServiceImpl implements ProductService {
     public Mono<ProductDto> create(ProductDto productDto) {
         Product product = productMapper.toEntity(productDto);
         return productRepository.save(product)
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+                .flatMap(saved -> TransactionUtils.afterCommit(() -> {
+                            productSearchIndex.put(saved.getId(), saved.getName());
+                            eventPublisher.publishEvent(ResourceChangedEvent.products());
+                        })
+                        .thenReturn(saved))
+                .flatMap(support::enrich);
+    }
+    
+    @Override
+    public Flux<BulkItemResult> bulkUpsert(Flux<ProductDto> products) {
+        return products
+                .index()
+                .buffer(bulkBatchSize)
+                .concatMap(this::upsertBatch);
     }
     
     @Override
-    @Transactional
     public Mono<ProductDto> update(Long id, ProductDto productDto) {
-        return productRepository.findById(id)
+        return databaseClient.sql(UPDATE_SQL)
+                .bind("id", id)
+                .bind("name", Parameter.fromOrEmpty(productDto.getName(), String.class))
+                .bind("description", Parameter.fromOrEmpty(productDto.getDescription(), String.class))
+                .bind("price", Parameter.fromOrEmpty(productDto.getPrice(), BigDecimal.class))
+                .bind("sku", Parameter.fromOrEmpty(productDto.getSku(), String.class))
+                .map((row, metadata) -> r2dbcConverter.read(Product.class, row, metadata))
+                .one()
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
-                .map(existingProduct -> productMapper.updateEntityFromDto(existingProduct, productDto))
-                .flatMap(productRepository::save)
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+                .flatMap(product -> TransactionUtils.afterCommit(() -> {
+                            invalidate(id);
+                            productSearchIndex.put(id, product.getName());
+                        })
+                        .thenReturn(product))
+                .flatMap(support::enrich);
+    }
+    
+    @Override
+    public Mono<ProductDto> patch(Long id, ProductDto productDto) {
+        return support.validatePatch(productDto).then(Mono.defer(() -> update(id, productDto)));
     }
     
     @Override
-    @Transactional
     public Mono<Void> delete(Long id) {
-        return productRepository.findById(id)
+        return databaseClient.sql(DELETE_SQL)
+                .bind("id", id)
+                .map(row -> row.get("category_ids", Long[].class))
+                .one()
                 .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", id)))
-                .flatMap(product -> {
-                    // Delete related product_categories first
-                    return schemaUtils.executeInSchema(
-                            schemaUtils.getDefaultSchema(),
-                            "DELETE FROM product_categories WHERE product_id = :productId")
-                            .bind("productId", id)
-                            .fetch()
-                            .rowsUpdated()
-                            .then(productRepository.delete(product));
-                });
+                .flatMap(deletedCategoryIds -> TransactionUtils.afterCommit(() -> {
+                    invalidate(id);
+                    productSearchIndex.remove(id);
+                    categoryFacetCounter.removeProduct(Arrays.asList(deletedCategoryIds));
+                }));
+    }
+    
+    @Override
+    public Flux<Long> deleteAll(Collection<Long> ids) {
+        // Bounded batches keep each statement, and the connection it holds, short
+        return Flux.fromIterable(new HashSet<>(ids))
+                .buffer(bulkBatchSize)
+                .concatMap(batch -> databaseClient.sql(DELETE_ALL_SQL)
+                        .bind("ids", batch.toArray(new Long[0]))
+                        .map(row -> Map.entry(
+                                row.get("id", Long.class),
+                                row.get("category_ids", Long[].class)))
+                        .all()
+                        .collectList()
+                        .flatMap(deleted -> TransactionUtils.afterCommit(() -> {
+                                    deleted.forEach(entry -> {
+                                        productCache.invalidate(entry.getKey());
+                                        productSearchIndex.remove(entry.getKey());
+                                        categoryFacetCounter.removeProduct(Arrays.asList(entry.getValue()));
+                                    });
+                                    if (!deleted.isEmpty()) {
+                                        eventPublisher.publishEvent(ResourceChangedEvent.products());
+                                    }
+                                })
+                                .thenReturn(deleted))
+                        .flatMapIterable(deleted -> deleted.stream().map(Map.Entry::getKey).toList()));
     }
     
     @Override
-    @Transactional
     public Mono<ProductDto> addCategory(Long productId, Long categoryId) {
-        // First, ensure both product and category exist
-        Mono<Product> productMono = productRepository.findById(productId)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", productId)));
-        
-        Mono<Void> categoryExistsMono = categoryRepository.findById(categoryId)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", categoryId)))
-                .then();
-        
-        // Then, add the relationship
-        return Mono.zip(productMono, categoryExistsMono)
-                .flatMap(tuple -> 
-                    schemaUtils.executeInSchema(
-                            schemaUtils.getDefaultSchema(),
-                            "INSERT INTO product_categories (product_id, category_id) VALUES (:productId, :categoryId) ON CONFLICT DO NOTHING")
-                            .bind("productId", productId)
-                            .bind("categoryId", categoryId)
-                            .fetch()
-                            .rowsUpdated()
-                            .thenReturn(tuple.getT1())
-                )
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+        return changeCategoryLink(productId, categoryId, ADD_CATEGORY_SQL, 1);
     }
     
     @Override
-    @Transactional
     public Mono<ProductDto> removeCategory(Long productId, Long categoryId) {
-        // First, ensure both product and category exist
-        Mono<Product> productMono = productRepository.findById(productId)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", productId)));
+        return changeCategoryLink(productId, categoryId, REMOVE_CATEGORY_SQL, -1);
+    }
+    
+    @Override
+    @Transactional
+    public Mono<ProductDto> addCategories(Long productId, List<Long> categoryIds) {
+        return assignCategories(productId, categoryIds, INSERT_CATEGORIES_SQL);
+    }
+    
+    @Override
+    @Transactional
+    public Mono<ProductDto> replaceCategories(Long productId, List<Long> categoryIds) {
+        return assignCategories(productId, categoryIds, REPLACE_CATEGORIES_SQL);
+    }
+    
+    /**
+     * Helper method to add or remove one category of a product with a single statement.
+     * The statement checks that both exist, writes the link and returns the product with
+     * its category IDs, so the categories are resolved from the dictionary without another query.
+     *
+     * @param productId The product ID
+     * @param categoryId The category ID
+     * @param sql The statement writing the product_categories row
+     * @param delta The change of the category's product count when the link was written
+     * @return The enriched product
+     */
+    private Mono<ProductDto> changeCategoryLink(Long productId, Long categoryId, String sql, long delta) {
+        return databaseClient.sql(sql)
+                .bind("productId", productId)
+                .bind("categoryId", categoryId)
+                .map((row, metadata) -> new CategoryLinkResult(
+                        row.get("id") == null ? null : r2dbcConverter.read(Product.class, row, metadata),
+                        Boolean.TRUE.equals(row.get("category_exists", Boolean.class)),
+                        Boolean.TRUE.equals(row.get("changed", Boolean.class)),
+                        row.get("category_ids", Long[].class)))
+                .one()
+                .flatMap(result -> {
+                    if (result.product() == null) {
+                        return Mono.error(ResourceNotFoundException.create("Product", "id", productId));
+                    }
+                    if (!result.categoryExists()) {
+                        return Mono.error(ResourceNotFoundException.create("Category", "id", categoryId));
+                    }
+                    result.product().setCategoryIds(Arrays.asList(result.categoryIds()));
+                    return TransactionUtils.afterCommit(() -> {
+                                invalidate(productId);
+                                if (result.changed()) {
+                                    categoryFacetCounter.add(categoryId, delta);
+                                }
+                            })
+                            .then(support.enrich(result.product()));
+                });
+    }
+    
+    /**
+     * Row returned by the category link statements.
+     *
+     * @param product The product, or null if it does not exist
+     * @param categoryExists Whether the category exists
+     * @param changed Whether the link was inserted or deleted
+     * @param categoryIds The category IDs of the product after the change
+     */
+    private record CategoryLinkResult(Product product, boolean categoryExists, boolean changed, Long[] categoryIds) {
+    }
+    
+    /**
+     * Helper method to assign a set of categories to a product.
+     * All category IDs are validated with one query and written with one statement.
+     *
+     * @param productId The product ID
+     * @param categoryIds The IDs of the categories to assign
+     * @param sql The statement writing the product_categories rows
+     * @return The enriched product
+     */
+    private Mono<ProductDto> assignCategories(Long productId, List<Long> categoryIds, String sql) {
+        Long[] ids = categoryIds.stream()
+                .distinct()
+                .toArray(Long[]::new);
         
-        Mono<Void> categoryExistsMono = categoryRepository.findById(categoryId)
-                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Category", "id", categoryId)))
-                .then();
+        return productRepository.findById(productId)
+                .switchIfEmpty(Mono.error(ResourceNotFoundException.create("Product", "id", productId)))
+                .flatMap(product -> categoryRepository.findExistingIds(ids)
+                        .collect(Collectors.toSet())
+                        .flatMap(existingIds -> {
+                            for (Long id : ids) {
+                                if (!existingIds.contains(id)) {
+                                    return Mono.error(ResourceNotFoundException.create("Category", "id", id));
+                                }
+                            }
+                            return databaseClient.sql(sql)
+                                    .bind("productId", productId)
+                                    .bind("categoryIds", ids)
+                                    .fetch()
+                                    .rowsUpdated();
+                        })
+                        // Re-read the product for the category IDs written by the trigger
+                        .then(productRepository.findById(productId))
+                        .flatMap(updated -> TransactionUtils.afterCommit(() -> {
+                                    support.countLinkChanges(
+                                            ProductServiceSupport.categoryIdsOf(product),
+                                            ProductServiceSupport.categoryIdsOf(updated));
+                                    invalidate(productId);
+                                })
+                                .thenReturn(updated)))
+                .flatMap(support::enrich);
+    }
+    
+    /**
+     * Helper method to build the statement of a product query.
+     * Only fixed fragments are appended to the SQL; every value is a bind parameter. The page
+     * continues after the cursor with a (column, id) row comparison, which walks the composite
+     * index of the sort column, and one row more than the limit is fetched to detect a next page.
+     *
+     * @param query The filters, sort order and page
+     * @param parameters Receives the bind parameters of the statement
+     * @param idArray Function converting the category IDs into the array parameter of the driver
+     * @return The SQL of the statement
+     * @throws BadRequestException if the cursor is malformed or belongs to another sort order
+     */
+    static String buildQuerySql(
+            ProductQuery query, Map<String, Object> parameters, Function<List<Long>, Object> idArray) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM products WHERE true");
+        appendFilter(sql, parameters, "price >= :minPrice", "minPrice", query.getMinPrice());
+        appendFilter(sql, parameters, "price <= :maxPrice", "maxPrice", query.getMaxPrice());
+        appendFilter(sql, parameters, "created_at >= :createdFrom", "createdFrom", query.getCreatedFrom());
+        appendFilter(sql, parameters, "created_at < :createdTo", "createdTo", query.getCreatedTo());
+        appendFilter(sql, parameters, "updated_at >= :updatedFrom", "updatedFrom", query.getUpdatedFrom());
+        appendFilter(sql, parameters, "updated_at < :updatedTo", "updatedTo", query.getUpdatedTo());
+        if (query.getCategoryIds() != null && !query.getCategoryIds().isEmpty()) {
+            appendFilter(sql, parameters, "category_ids && :categoryIds", "categoryIds",
+                    idArray.apply(query.getCategoryIds()));
+        }
         
-        // Then, remove the relationship
-        return Mono.zip(productMono, categoryExistsMono)
-                .flatMap(tuple -> 
-                    schemaUtils.executeInSchema(
-                            schemaUtils.getDefaultSchema(),
-                            "DELETE FROM product_categories WHERE product_id = :productId AND category_id = :categoryId")
-                            .bind("productId", productId)
-                            .bind("categoryId", categoryId)
-                            .fetch()
-                            .rowsUpdated()
-                            .thenReturn(tuple.getT1())
-                )
-                .map(productMapper::toDto)
-                .flatMap(this::enrichProductWithCategories);
+        String sort = querySort(query);
+        String column = QUERY_SORT_COLUMNS.get(sort);
+        boolean descending = "desc".equals(query.getDirection());
+        CursorUtils.Keyset after = CursorUtils.decode(query.getAfter(), querySortKey(query));
+        if (after != null) {
+            sql.append(" AND (").append(column).append(", id) ").append(descending ? "<" : ">")
+                    .append(" (:afterValue, :afterId)");
+            parameters.put("afterValue", parseSortValue(sort, after.value(), query.getAfter()));
+            parameters.put("afterId", after.id());
+        }
+        String direction = descending ? "DESC" : "ASC";
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction)
+                .append(", id ").append(direction)
+                .append(" LIMIT :limit");
+        parameters.put("limit", query.getLimit() + 1);
+        return sql.toString();
     }
     
     /**
-     * Helper method to enrich a product with its categories.
+     * Helper method to create the function returning the cursor that continues a product query after a product.
      *
-     * @param productDto The product to enrich
-     * @return The enriched product
+     * @param query The query the page was read with
+     * @return A function encoding the sort value and ID of a product
      */
-    private Mono<ProductDto> enrichProductWithCategories(ProductDto productDto) {
-        return categoryRepository.findCategoriesByProductId(productDto.getId())
-                .map(categoryMapper::toDto)
+    static Function<ProductDto, String> queryCursorEncoder(ProductQuery query) {
+        String sort = querySort(query);
+        String sortKey = querySortKey(query);
+        return product -> {
+            String value = switch (sort) {
+                case "price" -> product.getPrice().toPlainString();
+                case "updatedAt" -> product.getUpdatedAt().toString();
+                default -> product.getName();
+            };
+            return CursorUtils.encode(sortKey, value, product.getId());
+        };
+    }
+    
+    private static String querySort(ProductQuery query) {
+        return QUERY_SORT_COLUMNS.containsKey(query.getSort()) ? query.getSort() : "name";
+    }
+    
+    private static String querySortKey(ProductQuery query) {
+        return querySort(query) + ("desc".equals(query.getDirection()) ? ",desc" : ",asc");
+    }
+    
+    private static Object parseSortValue(String sort, String value, String cursor) {
+        try {
+            return switch (sort) {
+                case "price" -> new BigDecimal(value);
+                case "updatedAt" -> OffsetDateTime.parse(value);
+                default -> value;
+            };
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor: '" + cursor + "'");
+        }
+    }
+    
+    /**
+     * Helper method to add a condition of the product query when its value is given.
+     *
+     * @param sql The statement being built
+     * @param parameters The bind parameters of the statement
+     * @param condition The condition, referencing the parameter
+     * @param name The name of the parameter
+     * @param value The value of the parameter, or null to skip the condition
+     */
+    static void appendFilter(
+            StringBuilder sql, Map<String, Object> parameters, String condition, String name, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            parameters.put(name, value);
+        }
+    }
+    
+    /**
+     * Helper method to drop a changed product from the caches.
+     * Only called once the change is committed, see {@link TransactionUtils#afterCommit(Runnable)}.
+     *
+     * @param id The ID of the changed product
+     */
+    private void invalidate(Long id) {
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ResourceChangedEvent.products());
+    }
+    
+    /**
+     * Helper method to read the version of one product with a version query.
+     *
+     * @param sql The version query
+     * @param name The name of the filter parameter
+     * @param value The value of the filter parameter
+     * @return A Mono containing the version, or an empty Mono if the product does not exist
+     */
+    private Mono<ResourceVersion> findVersion(String sql, String name, Object value) {
+        return databaseClient.sql(sql)
+                .bind(name, value)
+                .map((row, metadata) -> ResourceVersion.of(
+                        row.get("modified", OffsetDateTime.class),
+                        row.get("id", Long.class)))
+                .one();
+    }
+    
+    /**
+     * Helper method to validate and upsert one batch of a bulk request.
+     * All valid products of the batch are bound to one INSERT ... ON CONFLICT statement
+     * with Statement.add(), so the whole batch is sent to the database in one go. Every row runs
+     * on its own, so a SKU repeated within the batch is written once per occurrence;
+     * {@link JdbcProductServiceImpl} sends the batch as arrays to one statement instead.
+     *
+     * @param batch The products of the batch with their index in the request
+     * @return The outcome of every product of the batch, in request order
+     */
+    private Flux<BulkItemResult> upsertBatch(List<Tuple2<Long, ProductDto>> batch) {
+        List<Tuple2<Long, ProductDto>> valid = new ArrayList<>(batch.size());
+        List<BulkItemResult> invalid = support.validateBatch(batch, valid);
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(invalid);
+        }
+        
+        Mono<List<BulkItemResult>> written = databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(UPSERT_BY_SKU_SQL);
+                    for (int i = 0; i < valid.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        ProductDto product = valid.get(i).getT2();
+                        statement.bind(0, product.getName());
+                        if (product.getDescription() != null) {
+                            statement.bind(1, product.getDescription());
+                        } else {
+                            statement.bindNull(1, String.class);
+                        }
+                        statement.bind(2, product.getPrice());
+                        statement.bind(3, product.getSku());
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> Map.entry(
+                                    row.get("id", Long.class),
+                                    Boolean.TRUE.equals(row.get("inserted", Boolean.class)))));
+                })
                 .collectList()
-                .doOnNext(productDto::setCategories)
-                .thenReturn(productDto);
+                .flatMap(rows -> {
+                    List<BulkItemResult> results = new ArrayList<>(batch.size());
+                    for (int i = 0; i < valid.size(); i++) {
+                        results.add(ProductServiceSupport.writtenResult(
+                                valid.get(i), rows.get(i).getKey(), rows.get(i).getValue()));
+                    }
+                    return TransactionUtils.afterCommit(() -> {
+                                for (int i = 0; i < valid.size(); i++) {
+                                    ProductDto product = valid.get(i).getT2();
+                                    Long id = rows.get(i).getKey();
+                                    productCache.invalidate(id);
+                                    productSearchIndex.put(id, product.getName());
+                                }
+                                eventPublisher.publishEvent(ResourceChangedEvent.products());
+                            })
+                            .thenReturn(results);
+                });
+        return ProductServiceSupport.batchResults(written, valid, invalid);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package example.springframeworkbible.service.impl;
+
+import example.springframeworkbible.cache.CategoryDictionary;
+import example.springframeworkbible.cache.CategoryFacetCounter;
+import example.springframeworkbible.domain.Product;
+import example.springframeworkbible.dto.BulkItemResult;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.mapper.ProductMapper;
+import example.springframeworkbible.util.ValidationUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping and validation shared by {@link ProductServiceImpl} and {@link JdbcProductServiceImpl}.
+ * Only how the statements are executed differs between the two stacks; enriching products with
+ * their categories, validating patches and bulk items, assembling bulk results and counting
+ * category link changes live here once.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductServiceSupport {
+
+    private static final List<String> PATCHABLE_FIELDS = List.of("name", "description", "price", "sku");
+
+    private final ProductMapper productMapper;
+    private final CategoryDictionary categoryDictionary;
+    private final CategoryFacetCounter categoryFacetCounter;
+    private final Validator validator;
+
+    @Value("${app.product.enrichment-batch-size:500}")
+    private int enrichmentBatchSize;
+
+    /**
+     * Maps a product and enriches it with its categories.
+     * The category IDs are read along with the product row; the categories themselves
+     * come from the in-memory category dictionary.
+     *
+     * @param product The product to map
+     * @return The enriched product
+     */
+    Mono<ProductDto> enrich(Product product) {
+        ProductDto productDto = productMapper.toDto(product);
+        return categoryDictionary.resolve(categoryIdsOf(product))
+                .map(categories -> {
+                    productDto.setCategories(categories);
+                    return productDto;
+                });
+    }
+
+    /**
+     * Maps a stream of products and enriches them with their categories.
+     * Products are grouped into windows that are resolved against one dictionary snapshot,
+     * so a listing refreshes the dictionary at most once per window. The original product
+     * order is preserved.
+     *
+     * @param products The products to map
+     * @return The enriched products
+     */
+    Flux<ProductDto> enrichAll(Flux<Product> products) {
+        return products
+                .buffer(enrichmentBatchSize)
+                .concatMap(this::enrichBatch);
+    }
+
+    /**
+     * Validates the fields given in a partial update of a product.
+     *
+     * @param productDto The fields to change
+     * @return An empty Mono, or an error if the patch is empty or a given field is invalid
+     * @see ValidationUtils#validatePatch(Validator, Object, List)
+     */
+    Mono<Void> validatePatch(ProductDto productDto) {
+        return ValidationUtils.validatePatch(validator, productDto, PATCHABLE_FIELDS);
+    }
+
+    /**
+     * Validates the products of one bulk batch.
+     *
+     * @param batch The products of the batch with their index in the request
+     * @param valid Receives the valid products, in request order
+     * @return The INVALID results of the other products
+     */
+    List<BulkItemResult> validateBatch(List<Tuple2<Long, ProductDto>> batch, List<Tuple2<Long, ProductDto>> valid) {
+        List<BulkItemResult> invalid = new ArrayList<>();
+        for (Tuple2<Long, ProductDto> item : batch) {
+            Set<ConstraintViolation<ProductDto>> violations = validator.validate(item.getT2());
+            if (violations.isEmpty()) {
+                valid.add(item);
+            } else {
+                invalid.add(BulkItemResult.builder()
+                        .index(item.getT1())
+                        .sku(item.getT2().getSku())
+                        .status(BulkItemResult.Status.INVALID)
+                        .message("Validation error: " + violations.stream()
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .collect(Collectors.joining(", ")))
+                        .build());
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Creates the result of a product written by a bulk request.
+     *
+     * @param item The product with its index in the request
+     * @param id The ID of the written product
+     * @param created Whether the product was inserted rather than updated
+     * @return The CREATED or UPDATED result
+     */
+    static BulkItemResult writtenResult(Tuple2<Long, ProductDto> item, Long id, boolean created) {
+        return BulkItemResult.builder()
+                .index(item.getT1())
+                .id(id)
+                .sku(item.getT2().getSku())
+                .status(created ? BulkItemResult.Status.CREATED : BulkItemResult.Status.UPDATED)
+                .build();
+    }
+
+    /**
+     * Merges the outcome of a bulk batch write with the invalid products of the batch.
+     * When the write fails, every valid product is reported as FAILED with the error message.
+     *
+     * @param written The results of the valid products
+     * @param valid The valid products of the batch
+     * @param invalid The results of the invalid products
+     * @return The outcome of every product of the batch, in request order
+     */
+    static Flux<BulkItemResult> batchResults(
+            Mono<List<BulkItemResult>> written, List<Tuple2<Long, ProductDto>> valid, List<BulkItemResult> invalid) {
+        return written
+                .onErrorResume(ex -> Mono.just(valid.stream()
+                        .map(item -> BulkItemResult.builder()
+                                .index(item.getT1())
+                                .sku(item.getT2().getSku())
+                                .status(BulkItemResult.Status.FAILED)
+                                .message(ex.getMessage())
+                                .build())
+                        .toList()))
+                .flatMapIterable(results -> {
+                    List<BulkItemResult> all = new ArrayList<>(results);
+                    all.addAll(invalid);
+                    all.sort(Comparator.comparing(BulkItemResult::getIndex));
+                    return all;
+                });
+    }
+
+    /**
+     * Applies the category links of a product that changed to the facet counters.
+     * Only call it once the change is committed.
+     *
+     * @param before The category IDs of the product before the change
+     * @param after The category IDs of the product after the change
+     */
+    void countLinkChanges(List<Long> before, List<Long> after) {
+        Set<Long> removed = new HashSet<>(before);
+        after.forEach(removed::remove);
+        Set<Long> added = new HashSet<>(after);
+        before.forEach(added::remove);
+        removed.forEach(categoryId -> categoryFacetCounter.add(categoryId, -1));
+        added.forEach(categoryId -> categoryFacetCounter.add(categoryId, 1));
+    }
+
+    /**
+     * Reads the category IDs of a product.
+     *
+     * @param product The product
+     * @return The category IDs, empty for a product that was just created
+     */
+    static List<Long> categoryIdsOf(Product product) {
+        return product.getCategoryIds() == null ? List.of() : product.getCategoryIds();
+    }
+
+    /**
+     * Helper method to enrich one window of products from one dictionary snapshot.
+     *
+     * @param products The products to map
+     * @return The enriched products, in the same order
+     */
+    private Flux<ProductDto> enrichBatch(List<Product> products) {
+        Set<Long> categoryIds = new HashSet<>();
+        for (Product product : products) {
+            categoryIds.addAll(categoryIdsOf(product));
+        }
+        return categoryDictionary.snapshotContaining(categoryIds)
+                .flatMapIterable(snapshot -> products.stream()
+                        .map(product -> {
+                            ProductDto productDto = productMapper.toDto(product);
+                            productDto.setCategories(snapshot.resolve(categoryIdsOf(product)));
+                            return productDto;
+                        })
+                        .toList());
+    }
+}
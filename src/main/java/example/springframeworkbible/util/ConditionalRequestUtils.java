@@ -0,0 +1,98 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ResourceVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Utility class for answering conditional GET requests.
+ */
+public final class ConditionalRequestUtils {
+
+    private ConditionalRequestUtils() {
+    }
+
+    /**
+     * Produces a response body only if the client does not already have the current version.
+     * The version is looked up first; when it matches the If-None-Match or If-Modified-Since
+     * header of the request, the response is completed as 304 Not Modified and the body is
+     * never loaded. Otherwise the ETag and Last-Modified headers are set and the body is loaded.
+     * When there is no version, for example because the resource does not exist, the body is
+     * loaded as usual so the regular error handling applies.
+     *
+     * @param exchange The current exchange
+     * @param version The current version of the resource
+     * @param body Supplier of the response body
+     * @return A Mono containing the body, or an empty Mono for a 304 response
+     */
+    public static <T> Mono<T> ifModified(ServerWebExchange exchange, Mono<ResourceVersion> version, Supplier<Mono<T>> body) {
+        return version
+                .map(current -> exchange.checkNotModified(current.etag(), current.lastModified()))
+                .defaultIfEmpty(false)
+                .flatMap(notModified -> notModified ? Mono.empty() : body.get());
+    }
+
+    /**
+     * Produces a response body only if the client does not already have the current version,
+     * taking the ETag and Last-Modified headers of a 200 response from the loaded body.
+     * The version only decides whether the client is up to date, so it may come from a cheaper
+     * source than the body, such as a query reading the timestamps alone. The headers always
+     * describe the body that is sent, so a client never pairs a newer tag with older content.
+     *
+     * @param exchange The current exchange
+     * @param version The current version of the resource
+     * @param body Supplier of the response body
+     * @param bodyVersion Derives the version of a loaded body
+     * @return A Mono containing the body, or an empty Mono for a 304 response
+     */
+    public static <T> Mono<T> ifModified(
+            ServerWebExchange exchange,
+            Mono<ResourceVersion> version,
+            Supplier<Mono<T>> body,
+            Function<T, ResourceVersion> bodyVersion) {
+        return ifModified(exchange, version, () -> body.get()
+                .doOnNext(loaded -> {
+                    ResourceVersion loadedVersion = bodyVersion.apply(loaded);
+                    HttpHeaders headers = exchange.getResponse().getHeaders();
+                    headers.setETag(loadedVersion.etag());
+                    headers.setLastModified(loadedVersion.lastModified());
+                }));
+    }
+
+    /**
+     * Derives the version of a product from its representation.
+     * The product embeds its categories, so their changes count as well.
+     *
+     * @param product The enriched product
+     * @return The version
+     */
+    public static ResourceVersion productVersion(ProductDto product) {
+        OffsetDateTime modified = product.getUpdatedAt();
+        if (product.getCategories() != null) {
+            for (CategoryDto category : product.getCategories()) {
+                if (modified == null
+                        || (category.getUpdatedAt() != null && category.getUpdatedAt().isAfter(modified))) {
+                    modified = category.getUpdatedAt();
+                }
+            }
+        }
+        return ResourceVersion.of(modified, product.getId());
+    }
+
+    /**
+     * Derives the version of a category from its representation.
+     *
+     * @param category The category
+     * @return The version
+     */
+    public static ResourceVersion categoryVersion(CategoryDto category) {
+        return ResourceVersion.of(category.getUpdatedAt(), category.getId());
+    }
+}
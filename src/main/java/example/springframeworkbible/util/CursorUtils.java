@@ -0,0 +1,119 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque pagination cursors.
+ * A cursor wraps the id of the last item of a page, so the next page can be
+ * read with a keyset query instead of an OFFSET scan. Pages sorted by another
+ * column wrap that column's value as well, with the id breaking ties.
+ */
+public final class CursorUtils {
+
+    private static final String PREFIX = "id:";
+    private static final String KEYSET_PREFIX = "key:";
+
+    private CursorUtils() {
+    }
+
+    /**
+     * Encodes an id into an opaque cursor.
+     *
+     * @param id The id of the last item of a page
+     * @return The opaque cursor
+     */
+    public static String encode(Long id) {
+        return toCursor(PREFIX + id);
+    }
+
+    /**
+     * Encodes the position of the last item of a page sorted by another column into an opaque cursor.
+     *
+     * @param sort The sort order the cursor belongs to, such as {@code price,desc}; must not contain ':'
+     * @param value The sort column value of the last item
+     * @param id The id of the last item
+     * @return The opaque cursor
+     */
+    public static String encode(String sort, String value, Long id) {
+        return toCursor(KEYSET_PREFIX + sort + ":" + id + ":" + value);
+    }
+
+    /**
+     * Decodes an opaque cursor back into an id.
+     *
+     * @param cursor The cursor received from the client, may be null
+     * @return The id wrapped by the cursor, or null if no cursor was given
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String value = fromCursor(cursor);
+        if (!value.startsWith(PREFIX)) {
+            throw invalid(cursor);
+        }
+        return parseId(cursor, value.substring(PREFIX.length()));
+    }
+
+    /**
+     * Decodes an opaque cursor of a page sorted by another column.
+     *
+     * @param cursor The cursor received from the client, may be null
+     * @param sort The sort order of the requested page
+     * @return The position wrapped by the cursor, or null if no cursor was given
+     * @throws BadRequestException if the cursor is malformed or belongs to another sort order
+     */
+    public static Keyset decode(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String value = fromCursor(cursor);
+        String prefix = KEYSET_PREFIX + sort + ":";
+        int separator = value.indexOf(':', prefix.length());
+        if (!value.startsWith(prefix) || separator < 0) {
+            throw invalid(cursor);
+        }
+        return new Keyset(parseId(cursor, value.substring(prefix.length(), separator)), value.substring(separator + 1));
+    }
+
+    private static String toCursor(String value) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fromCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static Long parseId(String cursor, String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException ex) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static BadRequestException invalid(String cursor) {
+        return new BadRequestException("Invalid cursor: '" + cursor + "'");
+    }
+
+    /**
+     * Position of the last item of a page sorted by another column than the id.
+     *
+     * @param id The id of the item
+     * @param value The sort column value of the item, as encoded
+     */
+    public record Keyset(Long id, String value) {
+    }
+}
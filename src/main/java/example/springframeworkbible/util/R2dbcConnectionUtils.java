@@ -0,0 +1,78 @@
+package example.springframeworkbible.util;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+
+/**
+ * Utility class for creating connection factories outside of the application pool.
+ * The connection settings are taken from the spring.r2dbc properties.
+ */
+public final class R2dbcConnectionUtils {
+
+    private R2dbcConnectionUtils() {
+    }
+
+    /**
+     * Creates the connection options for the configured database.
+     *
+     * @param properties The spring.r2dbc properties
+     * @return A builder of the connection options, ready for further options
+     */
+    public static ConnectionFactoryOptions.Builder optionsBuilder(R2dbcProperties properties) {
+        return optionsBuilder(properties, properties.getUrl());
+    }
+
+    /**
+     * Creates the connection options for a database at another URL, such as a read replica,
+     * with the credentials and driver options of the configured database.
+     *
+     * @param properties The spring.r2dbc properties
+     * @param url The R2DBC URL of the database
+     * @return A builder of the connection options, ready for further options
+     */
+    public static ConnectionFactoryOptions.Builder optionsBuilder(R2dbcProperties properties, String url) {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(url).mutate();
+        properties.getProperties().forEach((key, value) -> builder.option(Option.valueOf(key), value));
+        if (properties.getUsername() != null) {
+            builder.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        return builder;
+    }
+
+    /**
+     * Creates an unpooled connection factory for the configured database.
+     * This is meant for long-lived dedicated connections, such as notification listeners,
+     * that would otherwise hold a slot of the application pool.
+     *
+     * @param properties The spring.r2dbc properties
+     * @return A connection factory that opens a new connection on every create()
+     */
+    public static ConnectionFactory createUnpooled(R2dbcProperties properties) {
+        return ConnectionFactories.get(optionsBuilder(properties).build());
+    }
+
+    /**
+     * Finds an object of the given type in a chain of {@link Wrapped} decorators.
+     *
+     * @param candidate The outermost object, may itself be of the type
+     * @param type The type to look for
+     * @return The first object of the type in the chain, or null if there is none
+     */
+    public static <T> T unwrap(Object candidate, Class<T> type) {
+        Object current = candidate;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return type.cast(current);
+            }
+            current = current instanceof Wrapped<?> wrapped ? wrapped.unwrap() : null;
+        }
+        return null;
+    }
+}
@@ -1,9 +1,18 @@
 package example.springframeworkbible.util;
 
+import example.springframeworkbible.config.SchemaConnectionPools;
+import example.springframeworkbible.profiling.SqlProfiler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for working with multiple database schemas.
@@ -13,15 +22,27 @@ import reactor.core.publisher.Mono;
 public class SchemaUtils {
 
     private final DatabaseClient databaseClient;
+    private final SchemaConnectionPools schemaConnectionPools;
+    private final Map<String, DatabaseClient> schemaClients = new ConcurrentHashMap<>();
     
-    @Value("${app.schema.default}")
-    private String defaultSchema;
+    private final String defaultSchema;
     
-    @Value("${app.schema.master}")
-    private String masterSchema;
+    private final String masterSchema;
 
-    public SchemaUtils(DatabaseClient databaseClient) {
+    public SchemaUtils(
+            DatabaseClient databaseClient,
+            ConnectionFactory connectionFactory,
+            R2dbcProperties r2dbcProperties,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<SqlProfiler> sqlProfiler,
+            @Value("${app.schema.default}") String defaultSchema,
+            @Value("${app.schema.master}") String masterSchema,
+            @Value("${app.schema.pool.max-size:5}") int schemaPoolMaxSize) {
         this.databaseClient = databaseClient;
+        this.defaultSchema = defaultSchema;
+        this.masterSchema = masterSchema;
+        this.schemaConnectionPools = new SchemaConnectionPools(connectionFactory, defaultSchema, r2dbcProperties,
+                schemaPoolMaxSize, meterRegistry.getIfAvailable(), sqlProfiler.getIfAvailable());
     }
 
     /**
@@ -41,18 +62,20 @@ public class SchemaUtils {
     }
 
     /**
-     * Creates a database client that will execute queries in the specified schema.
-     * This is useful for cross-schema queries.
+     * Gets a database client that will execute queries in the specified schema.
+     * The default schema uses the application client, which takes part in transactions;
+     * other schemas use a cached client backed by a pool whose connections are opened
+     * with the schema as search_path, so no statement is needed to switch schemas.
      * 
      * @param schema The schema to use
      * @return A DatabaseClient configured for the specified schema
      */
     public DatabaseClient getClientForSchema(String schema) {
-        return (DatabaseClient) databaseClient.inConnection(connection -> {
-            return Mono.from(connection.createStatement("SET search_path TO " + schema)
-                    .execute())
-                    .thenReturn(connection);
-        });
+        if (defaultSchema.equals(schema)) {
+            return databaseClient;
+        }
+        return schemaClients.computeIfAbsent(schema,
+                key -> DatabaseClient.create(schemaConnectionPools.getConnectionFactory(key)));
     }
 
     /**
@@ -73,4 +96,12 @@ public class SchemaUtils {
     public DatabaseClient.GenericExecuteSpec executeInSchema(String schema, String query) {
         return getClientForSchema(schema).sql(query);
     }
+
+    /**
+     * Closes the connection pools of the non-default schemas.
+     */
+    @PreDestroy
+    public void close() {
+        schemaConnectionPools.dispose();
+    }
 } 
@@ -0,0 +1,42 @@
+package example.springframeworkbible.util;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for running side effects of a write once the write is visible to other readers.
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * Runs an action after the current reactive transaction commits.
+     * Caches must only be invalidated once the new state is committed: dropped earlier, a concurrent
+     * read would load the old rows and put them back. Without an active transaction, for example after
+     * a single auto-committed statement, the action runs right away. It never runs after a rollback.
+     *
+     * @param action The action to run, such as invalidating caches or publishing an event
+     * @return A Mono completing once the action has run or has been registered with the transaction
+     */
+    public static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(manager -> {
+                    if (!manager.isSynchronizationActive()) {
+                        return false;
+                    }
+                    manager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    });
+                    return true;
+                })
+                .onErrorResume(NoTransactionException.class, ex -> Mono.just(false))
+                .flatMap(registered -> registered ? Mono.<Void>empty() : Mono.fromRunnable(action));
+    }
+}
@@ -0,0 +1,49 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.exception.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for validating partial updates.
+ */
+public final class ValidationUtils {
+
+    private ValidationUtils() {
+    }
+
+    /**
+     * Validates the fields given in a partial update.
+     * Fields left out of the patch are null, so their @NotNull/@NotBlank violations do not apply,
+     * while a given field that is blank or otherwise invalid is rejected like in a full update.
+     *
+     * @param validator The validator
+     * @param patch The fields to change
+     * @param fields The names of the fields a patch may change
+     * @return An empty Mono, a BadRequestException if the patch gives none of the fields, or a
+     *         ConstraintViolationException if a given field is invalid
+     */
+    public static <T> Mono<Void> validatePatch(Validator validator, T patch, List<String> fields) {
+        return Mono.defer(() -> {
+            BeanWrapper values = PropertyAccessorFactory.forBeanPropertyAccess(patch);
+            if (fields.stream().allMatch(field -> values.getPropertyValue(field) == null)) {
+                return Mono.error(new BadRequestException(
+                        "Patch must contain at least one of: " + String.join(", ", fields)));
+            }
+            Set<ConstraintViolation<T>> violations = new HashSet<>();
+            for (String field : fields) {
+                violations.addAll(validator.validateProperty(patch, field));
+            }
+            violations.removeIf(violation -> violation.getInvalidValue() == null);
+            return violations.isEmpty() ? Mono.empty() : Mono.error(new ConstraintViolationException(violations));
+        });
+    }
+}
@@ -0,0 +1,20 @@
+-- Notify listeners whenever the categories table changes.
+-- The application keeps an in-memory snapshot of all categories and reloads it on this notification.
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Create a function that publishes a notification on the categories_changed channel.
+-- Notifications are delivered on commit and duplicates within a transaction are folded into one.
+CREATE OR REPLACE FUNCTION notify_categories_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('categories_changed', TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Create a statement level trigger so bulk changes publish a single notification
+CREATE TRIGGER notify_categories_changed
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON categories
+FOR EACH STATEMENT EXECUTE FUNCTION notify_categories_changed();
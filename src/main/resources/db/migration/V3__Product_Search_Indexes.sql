@@ -0,0 +1,24 @@
+-- Indexes for substring and full-text search.
+-- LOWER(name) LIKE '%x%' cannot use the B-tree index idx_products_name, so trigram GIN indexes
+-- are added on the searched expressions, plus a weighted tsvector over name and description.
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Enable trigram matching in the application schema so it resolves with the application search path
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA spring_bible;
+
+-- Create trigram indexes for case insensitive substring search
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING GIN (LOWER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_sku_trgm ON products USING GIN (LOWER(sku) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_categories_name_trgm ON categories USING GIN (LOWER(name) gin_trgm_ops);
+
+-- Add a full-text search vector, name matches rank above description matches
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(name, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(description, '')), 'B')
+    ) STORED;
+
+-- Create an index on the search vector for full-text search
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
@@ -0,0 +1,38 @@
+-- Keep products.updated_at in step with the category links of each product,
+-- so updated_at can be used as the version of the product representation
+-- for conditional GET requests (ETag / Last-Modified).
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Create a function that touches the products whose category links changed.
+-- It runs once per statement and reads the changed links from the transition table,
+-- so a bulk assignment updates each product once instead of once per link.
+CREATE OR REPLACE FUNCTION touch_products_of_changed_links()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE products SET updated_at = CURRENT_TIMESTAMP
+        WHERE id IN (SELECT product_id FROM inserted_links);
+    ELSE
+        UPDATE products SET updated_at = CURRENT_TIMESTAMP
+        WHERE id IN (SELECT product_id FROM deleted_links);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transition tables require one trigger per event
+CREATE TRIGGER touch_products_on_link_insert
+AFTER INSERT ON product_categories
+REFERENCING NEW TABLE AS inserted_links
+FOR EACH STATEMENT EXECUTE FUNCTION touch_products_of_changed_links();
+
+CREATE TRIGGER touch_products_on_link_delete
+AFTER DELETE ON product_categories
+REFERENCING OLD TABLE AS deleted_links
+FOR EACH STATEMENT EXECUTE FUNCTION touch_products_of_changed_links();
+
+-- Create indexes so the latest modification of a table is read from the index
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products(updated_at);
+CREATE INDEX IF NOT EXISTS idx_categories_updated_at ON categories(updated_at);
@@ -0,0 +1,36 @@
+-- Keep the category IDs of every product on the product row itself,
+-- so a product is read fully, categories included, with one single-table read.
+-- Category names and descriptions are resolved from the in-memory category dictionary,
+-- so only the links need to be denormalized.
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Add the column, sorted by category ID
+ALTER TABLE products ADD COLUMN IF NOT EXISTS category_ids BIGINT[] NOT NULL DEFAULT '{}';
+
+UPDATE products p SET category_ids = ARRAY(
+    SELECT pc.category_id FROM product_categories pc
+    WHERE pc.product_id = p.id ORDER BY pc.category_id);
+
+-- Recompute the column along with updated_at for the products whose category links changed.
+-- Deleting a category cascades to product_categories, so its products are covered as well.
+CREATE OR REPLACE FUNCTION touch_products_of_changed_links()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE products p SET updated_at = CURRENT_TIMESTAMP,
+            category_ids = ARRAY(
+                SELECT pc.category_id FROM product_categories pc
+                WHERE pc.product_id = p.id ORDER BY pc.category_id)
+        WHERE p.id IN (SELECT product_id FROM inserted_links);
+    ELSE
+        UPDATE products p SET updated_at = CURRENT_TIMESTAMP,
+            category_ids = ARRAY(
+                SELECT pc.category_id FROM product_categories pc
+                WHERE pc.product_id = p.id ORDER BY pc.category_id)
+        WHERE p.id IN (SELECT product_id FROM deleted_links);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,19 @@
+-- Indexes for the product query API (GET /api/products/query).
+-- Every sort order ends with id as a tie breaker, so each sortable column gets a composite
+-- (column, id) index that returns rows already in order and stops after the limit.
+-- The single-column indexes on name and updated_at are covered by the composite ones.
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Create composite indexes for sorting and range filters
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products(name, id);
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at, id);
+
+DROP INDEX IF EXISTS idx_products_name;
+DROP INDEX IF EXISTS idx_products_updated_at;
+
+-- Create an index for category membership (category_ids && :categoryIds)
+CREATE INDEX IF NOT EXISTS idx_products_category_ids ON products USING GIN (category_ids);
@@ -0,0 +1,40 @@
+-- Make the category_ids maintenance safe under concurrent link changes.
+-- The V5 function rebuilt category_ids with a subquery inside the UPDATE that also waited for the product row lock.
+-- Under READ COMMITTED that subquery keeps the snapshot taken before the wait, so when two transactions changed
+-- the links of the same product, the second one wrote back a list without the links of the first.
+-- The function now locks the products first and recomputes the column in a separate statement, which takes
+-- a fresh snapshot after the lock is granted and therefore sees every link committed by the previous holder.
+
+-- Set search path
+SET search_path TO spring_bible,public;
+
+-- Lock in ID order, so transactions touching several products in different orders do not deadlock
+CREATE OR REPLACE FUNCTION touch_products_of_changed_links()
+RETURNS TRIGGER AS $$
+DECLARE
+    changed_ids BIGINT[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT ARRAY(SELECT DISTINCT product_id FROM inserted_links) INTO changed_ids;
+    ELSE
+        SELECT ARRAY(SELECT DISTINCT product_id FROM deleted_links) INTO changed_ids;
+    END IF;
+
+    PERFORM 1 FROM products WHERE id = ANY(changed_ids) ORDER BY id FOR UPDATE;
+
+    UPDATE products p SET updated_at = CURRENT_TIMESTAMP,
+        category_ids = ARRAY(
+            SELECT pc.category_id FROM product_categories pc
+            WHERE pc.product_id = p.id ORDER BY pc.category_id)
+    WHERE p.id = ANY(changed_ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Repair rows that drifted from product_categories before this migration
+UPDATE products p SET category_ids = ARRAY(
+    SELECT pc.category_id FROM product_categories pc
+    WHERE pc.product_id = p.id ORDER BY pc.category_id)
+WHERE p.category_ids IS DISTINCT FROM ARRAY(
+    SELECT pc.category_id FROM product_categories pc
+    WHERE pc.product_id = p.id ORDER BY pc.category_id);
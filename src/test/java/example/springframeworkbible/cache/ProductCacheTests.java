@@ -0,0 +1,99 @@
+package example.springframeworkbible.cache;
+
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTests {
+
+    private final ProductCache cache = new ProductCache(true, 100, Duration.ofMinutes(5));
+    private final AtomicInteger loads = new AtomicInteger();
+    private String categoryName = "Electronics";
+
+    @Test
+    void loadsProductOnce() {
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+        ProductDto cached = cache.getBySku("SKU-1", () -> load(1L, "SKU-1")).block();
+
+        assertThat(cached.getId()).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidatedProductIsLoadedAgain() {
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+
+        cache.invalidate(1L);
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void productLoadedAcrossAnInvalidationIsNotCached() {
+        // The write commits and invalidates while the old product is being loaded
+        ProductDto loaded = cache.getById(1L, () -> load(1L, "SKU-1")
+                .doOnNext(product -> cache.invalidate(1L))).block();
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+
+        assertThat(loaded.getId()).isEqualTo(1L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void productWhoseSkuChangedIsNotServedForTheOldSku() {
+        cache.getBySku("SKU-1", () -> load(1L, "SKU-1")).block();
+        cache.invalidate(1L);
+        cache.getById(1L, () -> load(1L, "SKU-2")).block();
+
+        ProductDto bySku = cache.getBySku("SKU-1", () -> Mono.empty()).block();
+
+        assertThat(bySku).isNull();
+    }
+
+    @Test
+    void categoryChangeDropsTheProductsEmbeddingIt() {
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+        cache.getBySku("SKU-1", () -> load(1L, "SKU-1")).block();
+
+        // The category is renamed and the category service publishes the change once committed
+        categoryName = "Renamed";
+        cache.onResourceChanged(ResourceChangedEvent.categories());
+
+        ProductDto byId = cache.getById(1L, () -> load(1L, "SKU-1")).block();
+        ProductDto bySku = cache.getBySku("SKU-1", () -> load(1L, "SKU-1")).block();
+
+        assertThat(byId.getCategories()).extracting(CategoryDto::getName).containsExactly("Renamed");
+        assertThat(bySku.getCategories()).extracting(CategoryDto::getName).containsExactly("Renamed");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void productChangeEventKeepsTheCachedProducts() {
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+
+        cache.onResourceChanged(ResourceChangedEvent.products());
+        cache.getById(1L, () -> load(1L, "SKU-1")).block();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    private Mono<ProductDto> load(Long id, String sku) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return ProductDto.builder()
+                    .id(id)
+                    .sku(sku)
+                    .name("Product " + id)
+                    .categories(List.of(CategoryDto.builder().id(10L).name(categoryName).build()))
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package example.springframeworkbible.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheWebFilterTests {
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    // Renders a new version on every call and sets its validators the way the controllers do
+    private final WebFilterChain chain = exchange -> {
+        int current = version.incrementAndGet();
+        if (exchange.checkNotModified("W/\"" + current + "\"", Instant.ofEpochSecond(current))) {
+            return exchange.getResponse().setComplete();
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("{\"version\":" + current + "}").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    @Test
+    void servesFreshEntryFromMemory() {
+        ResponseCacheWebFilter filter = filter(Duration.ofMinutes(1));
+
+        MockServerWebExchange miss = get(filter, "/api/products/1");
+        MockServerWebExchange hit = get(filter, "/api/products/1");
+
+        assertThat(miss.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getResponse().getHeaders().getETag()).isEqualTo("W/\"1\"");
+        assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo("{\"version\":1}");
+        assertThat(version).hasValue(1);
+    }
+
+    @Test
+    void revalidatedEntryKeepsItsValidators() {
+        ResponseCacheWebFilter filter = filter(Duration.ZERO);
+
+        get(filter, "/api/products/1");
+        // Stale: answered with version 1 while version 2 is rendered in the background
+        MockServerWebExchange stale = get(filter, "/api/products/1");
+        MockServerWebExchange revalidated = get(filter, "/api/products/1");
+
+        assertThat(stale.getResponse().getHeaders().getETag()).isEqualTo("W/\"1\"");
+        assertThat(revalidated.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("STALE");
+        assertThat(revalidated.getResponse().getBodyAsString().block()).isEqualTo("{\"version\":2}");
+        assertThat(revalidated.getResponse().getHeaders().getETag()).isEqualTo("W/\"2\"");
+        assertThat(revalidated.getResponse().getHeaders().getLastModified())
+                .isEqualTo(Instant.ofEpochSecond(2).toEpochMilli());
+    }
+
+    @Test
+    void productChangeDropsProductResponsesAndFacets() {
+        ResponseCacheWebFilter filter = filter(Duration.ofMinutes(1));
+        get(filter, "/api/products/1");
+        get(filter, "/api/categories/facets");
+        get(filter, "/api/categories/1");
+
+        filter.onResourceChanged(ResourceChangedEvent.products());
+
+        assertThat(get(filter, "/api/products/1").getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(get(filter, "/api/categories/facets").getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(get(filter, "/api/categories/1").getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+    }
+
+    @Test
+    void conditionalRequestsBypassTheCache() {
+        ResponseCacheWebFilter filter = filter(Duration.ofMinutes(1));
+        get(filter, "/api/products/1");
+
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"2\""));
+        filter.filter(conditional, chain).block();
+
+        assertThat(conditional.getResponse().getHeaders().containsKey("X-Cache")).isFalse();
+        assertThat(conditional.getResponse().getStatusCode().value()).isEqualTo(304);
+    }
+
+    @Test
+    void sendsGzippedBodyWhateverTheCaseOfAcceptEncoding() {
+        ResponseCacheWebFilter filter = filter(Duration.ofMinutes(1), true);
+        WebFilterChain largeBody = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("[" + "0,".repeat(1024) + "0]").getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/products")), largeBody).block();
+
+        MockServerWebExchange hit = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "GZIP"));
+        filter.filter(hit, largeBody).block();
+
+        assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    private ResponseCacheWebFilter filter(Duration ttl) {
+        return filter(ttl, false);
+    }
+
+    private ResponseCacheWebFilter filter(Duration ttl, boolean gzip) {
+        return new ResponseCacheWebFilter(
+                new DefaultWebSessionManager(),
+                ServerCodecConfigurer.create(),
+                new AcceptHeaderLocaleContextResolver(),
+                true,
+                DataSize.ofMegabytes(1),
+                ttl,
+                Duration.ofMinutes(5),
+                gzip,
+                new String[] {"/api/products/**", "/api/categories/**"});
+    }
+
+    private MockServerWebExchange get(ResponseCacheWebFilter filter, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,76 @@
+package example.springframeworkbible.config;
+
+import example.springframeworkbible.metrics.TimedConnectionFactory;
+import example.springframeworkbible.profiling.RequestTaggingConnectionFactory;
+import example.springframeworkbible.profiling.SqlProfiler;
+import example.springframeworkbible.util.R2dbcConnectionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class SchemaConnectionPoolsTests {
+
+    private final ConnectionFactory applicationConnectionFactory = mock(ConnectionFactory.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SchemaConnectionPools pools;
+
+    @AfterEach
+    void disposePools() {
+        if (pools != null) {
+            pools.dispose();
+        }
+    }
+
+    @Test
+    void defaultSchemaUsesTheApplicationConnectionFactory() {
+        pools = pools(null, null);
+
+        assertThat(pools.getConnectionFactory("public")).isSameAs(applicationConnectionFactory);
+        assertThat(pools.getConnectionFactory(null)).isSameAs(applicationConnectionFactory);
+    }
+
+    @Test
+    void otherSchemaGetsOneCachedPool() {
+        pools = pools(null, null);
+
+        ConnectionFactory master = pools.getConnectionFactory("master");
+
+        assertThat(master).isInstanceOf(ConnectionPool.class);
+        assertThat(pools.getConnectionFactory("master")).isSameAs(master);
+    }
+
+    @Test
+    void poolIsDecoratedLikeTheApplicationPool() {
+        pools = pools(meterRegistry, new SqlProfiler(10, Duration.ofMillis(200), 100));
+
+        ConnectionFactory master = pools.getConnectionFactory("master");
+
+        assertThat(master).isInstanceOf(TimedConnectionFactory.class);
+        assertThat(R2dbcConnectionUtils.unwrap(master, RequestTaggingConnectionFactory.class)).isNotNull();
+        assertThat(R2dbcConnectionUtils.unwrap(master, ConnectionPool.class)).isNotNull();
+        assertThat(meterRegistry.find("r2dbc.pool.acquired").tag("name", "schema-master").gauge()).isNotNull();
+    }
+
+    @Test
+    void invalidSchemaNameIsRejected() {
+        pools = pools(null, null);
+
+        assertThatThrownBy(() -> pools.getConnectionFactory("master; DROP TABLE products"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SchemaConnectionPools pools(SimpleMeterRegistry registry, SqlProfiler sqlProfiler) {
+        R2dbcProperties properties = new R2dbcProperties();
+        properties.setUrl("r2dbc:postgresql://localhost:5432/spring_bible");
+        return new SchemaConnectionPools(applicationConnectionFactory, "public", properties, 2, registry, sqlProfiler);
+    }
+}
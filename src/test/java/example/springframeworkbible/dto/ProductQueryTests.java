@@ -0,0 +1,35 @@
+package example.springframeworkbible.dto;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductQueryTests {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    private final Validator validator = VALIDATOR_FACTORY.getValidator();
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void defaultQueryIsValid() {
+        assertThat(validator.validate(new ProductQuery())).isEmpty();
+    }
+
+    @Test
+    void emptyLimitIsRejected() {
+        ProductQuery query = ProductQuery.builder().limit(null).build();
+
+        assertThat(validator.validate(query))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("limit");
+    }
+}
@@ -0,0 +1,95 @@
+package example.springframeworkbible.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlProfilerTests {
+
+    @Test
+    void statementsDifferingOnlyInLiteralsShareAShape() {
+        assertThat(SqlProfiler.shapeOf("SELECT * FROM product WHERE id = 42"))
+                .isEqualTo(SqlProfiler.shapeOf("SELECT * FROM product WHERE id = 7"))
+                .isEqualTo("SELECT * FROM product WHERE id = ?");
+        assertThat(SqlProfiler.shapeOf("SELECT * FROM product WHERE sku = 'SKU-1' AND price > 9.99"))
+                .isEqualTo("SELECT * FROM product WHERE sku = ? AND price > ?");
+    }
+
+    @Test
+    void quotedLiteralsAreReplacedAsAWhole() {
+        assertThat(SqlProfiler.shapeOf("SELECT * FROM product WHERE name = 'It''s   7 o''clock'"))
+                .isEqualTo("SELECT * FROM product WHERE name = ?");
+    }
+
+    @Test
+    void layoutIsNormalized() {
+        assertThat(SqlProfiler.shapeOf("  SELECT *\n    FROM product\n\tWHERE id = 1\n"))
+                .isEqualTo("SELECT * FROM product WHERE id = ?");
+    }
+
+    @Test
+    void bindMarkersAndIdentifiersAreKept() {
+        assertThat(SqlProfiler.shapeOf("SELECT p1.id FROM product p1 WHERE p1.id = $1 AND p1.price > $12"))
+                .isEqualTo("SELECT p1.id FROM product p1 WHERE p1.id = $1 AND p1.price > $12");
+    }
+
+    @Test
+    void requestRepeatingAStatementShapeIsFlagged() {
+        SqlProfiler profiler = new SqlProfiler(2, Duration.ofSeconds(1), 10);
+        RequestProfile profile = new RequestProfile("GET", "/api/products");
+        for (long id = 1; id <= 3; id++) {
+            profile.record(SqlProfiler.shapeOf("SELECT * FROM category WHERE id = " + id), Duration.ofMillis(1));
+        }
+        profile.record(SqlProfiler.shapeOf("SELECT * FROM product LIMIT 20"), Duration.ofMillis(1));
+
+        profiler.complete(profile);
+
+        assertThat(profiler.getRecentRequests()).hasSize(1);
+        assertThat(profiler.getFlaggedRequests()).singleElement().satisfies(summary -> {
+            assertThat(summary.request()).isEqualTo("GET /api/products");
+            assertThat(summary.statements()).isEqualTo(4);
+            assertThat(summary.repeatedStatements())
+                    .containsExactly(Map.entry("SELECT * FROM category WHERE id = ?", 3L));
+        });
+    }
+
+    @Test
+    void requestWithinTheThresholdIsNotFlagged() {
+        SqlProfiler profiler = new SqlProfiler(2, Duration.ofSeconds(1), 10);
+        RequestProfile profile = new RequestProfile("GET", "/api/products/1");
+        profile.record(SqlProfiler.shapeOf("SELECT * FROM product WHERE id = 1"), Duration.ofMillis(1));
+        profile.record(SqlProfiler.shapeOf("SELECT * FROM product WHERE id = 2"), Duration.ofMillis(1));
+
+        profiler.complete(profile);
+
+        assertThat(profiler.getRecentRequests()).singleElement()
+                .satisfies(summary -> assertThat(summary.repeatedStatements()).isEmpty());
+        assertThat(profiler.getFlaggedRequests()).isEmpty();
+    }
+
+    @Test
+    void historyKeepsTheNewestRequests() {
+        SqlProfiler profiler = new SqlProfiler(2, Duration.ofSeconds(1), 2);
+        RequestProfile first = profileWithOneStatement();
+        RequestProfile second = profileWithOneStatement();
+        RequestProfile third = profileWithOneStatement();
+
+        profiler.complete(first);
+        profiler.complete(second);
+        profiler.complete(third);
+        profiler.complete(new RequestProfile("GET", "/api/categories"));
+
+        assertThat(profiler.getRecentRequests())
+                .extracting(SqlProfiler.RequestSummary::id)
+                .containsExactly(third.getId(), second.getId());
+    }
+
+    private static RequestProfile profileWithOneStatement() {
+        RequestProfile profile = new RequestProfile("GET", "/api/products");
+        profile.record("SELECT * FROM product", Duration.ofMillis(1));
+        return profile;
+    }
+}
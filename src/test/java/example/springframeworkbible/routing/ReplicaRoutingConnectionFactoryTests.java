@@ -0,0 +1,99 @@
+package example.springframeworkbible.routing;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReplicaRoutingConnectionFactoryTests {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica0Connection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final ConnectionFactory primary = factory(Mono.just(primaryConnection));
+    private final ConnectionFactory replica0 = factory(Mono.just(replica0Connection));
+    private final ConnectionFactory replica1 = factory(Mono.just(replica1Connection));
+
+    @Test
+    void readOnlyWorkIsSpreadOverTheReplicas() {
+        ReplicaRoutingConnectionFactory routing = routing(List.of(replica0, replica1), Duration.ofMinutes(1));
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica0Connection);
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica1Connection);
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica0Connection);
+    }
+
+    @Test
+    void writesAndUnmarkedWorkUseThePrimary() {
+        ReplicaRoutingConnectionFactory routing = routing(List.of(replica0), Duration.ZERO);
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.write())).isSameAs(primaryConnection);
+        assertThat(connect(routing, Context.empty())).isSameAs(primaryConnection);
+        verify(replica0, never()).create();
+    }
+
+    @Test
+    void pinnedReadOnlyWorkUsesThePrimary() {
+        ReplicaRoutingConnectionFactory routing = routing(List.of(replica0), Duration.ZERO);
+
+        Context pinned = ReplicaRoutingConnectionFactory.readOnly()
+                .putAll(ReplicaRoutingConnectionFactory.primary().readOnly());
+
+        assertThat(connect(routing, pinned)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void failingReplicaIsEjectedAndItsRequestsFallBackToThePrimary() {
+        ConnectionFactory failing = factory(Mono.error(new IllegalStateException("Connection refused")));
+        ReplicaRoutingConnectionFactory routing = routing(List.of(failing, replica1), Duration.ZERO);
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(primaryConnection);
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica1Connection);
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica1Connection);
+        verify(failing, times(1)).create();
+    }
+
+    @Test
+    void readsStayOnThePrimaryWithinTheWindowAfterAWrite() {
+        ReplicaRoutingConnectionFactory routing = routing(List.of(replica0), Duration.ofMinutes(1));
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica0Connection);
+        connect(routing, ReplicaRoutingConnectionFactory.write());
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void unmarkedWorkDoesNotOpenTheWindow() {
+        ReplicaRoutingConnectionFactory routing = routing(List.of(replica0), Duration.ofMinutes(1));
+
+        connect(routing, Context.empty());
+
+        assertThat(connect(routing, ReplicaRoutingConnectionFactory.readOnly())).isSameAs(replica0Connection);
+    }
+
+    private ReplicaRoutingConnectionFactory routing(List<ConnectionFactory> replicas, Duration readYourWritesWindow) {
+        return new ReplicaRoutingConnectionFactory(primary, replicas, Duration.ofMinutes(1), readYourWritesWindow);
+    }
+
+    private static ConnectionFactory factory(Mono<Connection> connection) {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        doReturn(connection).when(factory).create();
+        return factory;
+    }
+
+    private static Connection connect(ReplicaRoutingConnectionFactory routing, Context context) {
+        return routing.create().contextWrite(context).block();
+    }
+}
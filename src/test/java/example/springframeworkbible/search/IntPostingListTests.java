@@ -0,0 +1,52 @@
+package example.springframeworkbible.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntPostingListTests {
+
+    @Test
+    void keepsIdsSortedAndUnique() {
+        IntPostingList list = new IntPostingList();
+        for (int id : new int[] {9, 3, 7, 1, 3, 5, 9}) {
+            list.add(id);
+        }
+
+        assertThat(list.toArray()).containsExactly(1, 3, 5, 7, 9);
+        assertThat(list.size()).isEqualTo(5);
+    }
+
+    @Test
+    void removesOnlyTheGivenId() {
+        IntPostingList list = list(1, 2, 3);
+
+        list.remove(2);
+        list.remove(4);
+
+        assertThat(list.toArray()).containsExactly(1, 3);
+
+        list.remove(1);
+        list.remove(3);
+
+        assertThat(list.isEmpty()).isTrue();
+    }
+
+    @Test
+    void intersectsWithTheValidEntriesOfAnArray() {
+        IntPostingList list = list(1, 4, 6, 8, 10);
+
+        // The trailing 4 is past the given size and must be ignored
+        assertThat(list.intersect(new int[] {2, 6, 8, 9, 4}, 4)).containsExactly(6, 8);
+        assertThat(list.intersect(new int[] {2, 3}, 2)).isEmpty();
+        assertThat(new IntPostingList().intersect(new int[] {1}, 1)).isEmpty();
+    }
+
+    private static IntPostingList list(int... ids) {
+        IntPostingList list = new IntPostingList();
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,73 @@
+package example.springframeworkbible.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    // The repository is only used by build(), which these tests do not call
+    private final ProductSearchIndex index = new ProductSearchIndex(null, "index");
+
+    @Test
+    void findsNamesContainingTheTextIgnoringCase() {
+        index.put(1L, "Wireless Mouse");
+        index.put(2L, "Wired Keyboard");
+        index.put(3L, "Mouse Pad");
+
+        assertThat(index.search("MOUSE")).containsExactly(1L, 3L);
+        assertThat(index.search("wire")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void requiresEveryTrigramAndTheWholeText() {
+        index.put(1L, "abcd xyz");
+        index.put(2L, "abc bcd");
+
+        // Both names contain the trigrams abc and bcd, only the first contains abcd
+        assertThat(index.search("abcd")).containsExactly(1L);
+        assertThat(index.search("abcde")).isEmpty();
+    }
+
+    @Test
+    void shortQueriesCheckEveryName() {
+        index.put(2L, "Tea");
+        index.put(1L, "Oat");
+        index.put(3L, "Rye");
+
+        assertThat(index.search("a")).containsExactly(1L, 2L);
+        assertThat(index.search("")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void putReplacesThePreviousName() {
+        index.put(1L, "Desk Lamp");
+
+        index.put(1L, "Floor Lamp");
+
+        assertThat(index.search("desk")).isEmpty();
+        assertThat(index.search("floor")).containsExactly(1L);
+    }
+
+    @Test
+    void removedProductIsNotFound() {
+        index.put(1L, "Desk Lamp");
+        index.put(2L, "Floor Lamp");
+
+        index.remove(1L);
+        index.remove(42L);
+
+        assertThat(index.search("lamp")).containsExactly(2L);
+        assertThat(index.search("la")).containsExactly(2L);
+    }
+
+    @Test
+    void disabledIndexIgnoresWrites() {
+        ProductSearchIndex disabled = new ProductSearchIndex(null, "database");
+
+        disabled.put(1L, "Desk Lamp");
+
+        assertThat(disabled.isReady()).isFalse();
+        assertThat(disabled.search("lamp")).isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.dto.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalRequestUtilsTests {
+
+    private static final OffsetDateTime UPDATED_AT = OffsetDateTime.of(2026, 1, 2, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void currentClientGetsNotModifiedWithoutLoadingTheBody() {
+        ProductDto product = product(UPDATED_AT);
+        ResourceVersion version = ConditionalRequestUtils.productVersion(product);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, version.etag()));
+
+        ProductDto body = ConditionalRequestUtils.ifModified(exchange, Mono.just(version),
+                () -> load(product), ConditionalRequestUtils::productVersion).block();
+
+        assertThat(body).isNull();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void loadedBodyCarriesItsOwnValidators() {
+        // The version query already sees a newer change than the body that is loaded
+        ResourceVersion newer = ConditionalRequestUtils.productVersion(product(UPDATED_AT.plusMinutes(1)));
+        ProductDto product = product(UPDATED_AT);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""));
+
+        ProductDto body = ConditionalRequestUtils.ifModified(exchange, Mono.just(newer),
+                () -> load(product), ConditionalRequestUtils::productVersion).block();
+
+        ResourceVersion served = ConditionalRequestUtils.productVersion(product);
+        assertThat(body).isSameAs(product);
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(served.etag());
+        assertThat(exchange.getResponse().getHeaders().getLastModified())
+                .isEqualTo(served.lastModified().toEpochMilli());
+    }
+
+    @Test
+    void missingVersionStillLoadsTheBody() {
+        CategoryDto category = CategoryDto.builder().id(3L).name("Books").updatedAt(UPDATED_AT).build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/categories/3"));
+
+        CategoryDto body = ConditionalRequestUtils.ifModified(exchange, Mono.empty(),
+                () -> Mono.just(category), ConditionalRequestUtils::categoryVersion).block();
+
+        assertThat(body).isSameAs(category);
+        assertThat(exchange.getResponse().getHeaders().getETag())
+                .isEqualTo(ConditionalRequestUtils.categoryVersion(category).etag());
+    }
+
+    @Test
+    void productVersionCoversItsLatestCategoryChange() {
+        ProductDto product = product(UPDATED_AT);
+        product.setCategories(List.of(
+                CategoryDto.builder().id(1L).updatedAt(UPDATED_AT.minusDays(1)).build(),
+                CategoryDto.builder().id(2L).updatedAt(UPDATED_AT.plusHours(1)).build()));
+
+        ResourceVersion version = ConditionalRequestUtils.productVersion(product);
+
+        assertThat(version.lastModified()).isEqualTo(UPDATED_AT.plusHours(1).toInstant());
+        assertThat(version).isEqualTo(ResourceVersion.of(UPDATED_AT.plusHours(1), 1L));
+    }
+
+    private Mono<ProductDto> load(ProductDto product) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return product;
+        });
+    }
+
+    private static ProductDto product(OffsetDateTime updatedAt) {
+        return ProductDto.builder().id(1L).sku("SKU-1").updatedAt(updatedAt).categories(List.of()).build();
+    }
+}
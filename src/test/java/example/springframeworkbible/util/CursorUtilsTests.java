@@ -0,0 +1,86 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorUtilsTests {
+
+    @Test
+    void decodesTheEncodedId() {
+        String cursor = CursorUtils.encode(42L);
+
+        assertThat(cursor).doesNotContain("42");
+        assertThat(CursorUtils.decode(cursor)).isEqualTo(42L);
+    }
+
+    @Test
+    void missingCursorMeansTheFirstPage() {
+        assertThat(CursorUtils.decode(null)).isNull();
+        assertThat(CursorUtils.decode(" ")).isNull();
+        assertThat(CursorUtils.decode(null, "price,asc")).isNull();
+        assertThat(CursorUtils.decode("", "price,asc")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> CursorUtils.decode("not base64!"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("not base64!");
+        assertThatThrownBy(() -> CursorUtils.decode(cursor("row:42")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(cursor("id:abc")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(CursorUtils.encode("price,asc", "9.99", 42L)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void decodesTheEncodedKeyset() {
+        String cursor = CursorUtils.encode("price,desc", "19.99", 7L);
+
+        CursorUtils.Keyset keyset = CursorUtils.decode(cursor, "price,desc");
+
+        assertThat(keyset.id()).isEqualTo(7L);
+        assertThat(keyset.value()).isEqualTo("19.99");
+    }
+
+    @Test
+    void keysetValueMayContainTheSeparator() {
+        String value = "2026-10-18T10:15:30+02:00";
+
+        CursorUtils.Keyset keyset = CursorUtils.decode(CursorUtils.encode("createdAt,asc", value, 3L), "createdAt,asc");
+
+        assertThat(keyset.id()).isEqualTo(3L);
+        assertThat(keyset.value()).isEqualTo(value);
+    }
+
+    @Test
+    void rejectsKeysetOfAnotherSortOrder() {
+        String cursor = CursorUtils.encode("price,desc", "19.99", 7L);
+
+        assertThatThrownBy(() -> CursorUtils.decode(cursor, "price,asc"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(cursor, "price"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(CursorUtils.encode(7L), "price,desc"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsKeysetWithoutValidId() {
+        assertThatThrownBy(() -> CursorUtils.decode(cursor("key:price,desc:x:19.99"), "price,desc"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(cursor("key:price,desc:7"), "price,desc"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String cursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
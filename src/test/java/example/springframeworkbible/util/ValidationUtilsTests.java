@@ -0,0 +1,67 @@
+package example.springframeworkbible.util;
+
+import example.springframeworkbible.dto.CategoryDto;
+import example.springframeworkbible.dto.ProductDto;
+import example.springframeworkbible.exception.BadRequestException;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidationUtilsTests {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+    private static final List<String> CATEGORY_FIELDS = List.of("name", "description");
+    private static final List<String> PRODUCT_FIELDS = List.of("name", "description", "price", "sku");
+
+    private final Validator validator = VALIDATOR_FACTORY.getValidator();
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void fieldsLeftOutOfThePatchAreNotRequired() {
+        ProductDto priceOnly = ProductDto.builder().price(new BigDecimal("9.99")).build();
+
+        assertThatCode(() -> ValidationUtils.validatePatch(validator, priceOnly, PRODUCT_FIELDS).block())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void givenBlankFieldIsRejected() {
+        CategoryDto blankName = CategoryDto.builder().name("  ").build();
+
+        assertThatThrownBy(() -> ValidationUtils.validatePatch(validator, blankName, CATEGORY_FIELDS).block())
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("name");
+    }
+
+    @Test
+    void givenInvalidFieldIsRejected() {
+        ProductDto negativePrice = ProductDto.builder().price(new BigDecimal("-1")).build();
+
+        assertThatThrownBy(() -> ValidationUtils.validatePatch(validator, negativePrice, PRODUCT_FIELDS).block())
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("price");
+    }
+
+    @Test
+    void emptyPatchIsRejectedWithTheSameMessageForEveryResource() {
+        assertThatThrownBy(() -> ValidationUtils.validatePatch(validator, new CategoryDto(), CATEGORY_FIELDS).block())
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Patch must contain at least one of: name, description");
+        assertThatThrownBy(() -> ValidationUtils.validatePatch(validator, new ProductDto(), PRODUCT_FIELDS).block())
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Patch must contain at least one of: name, description, price, sku");
+    }
+}